@@ -7,10 +7,13 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.web.util.DefaultUriBuilderFactory;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.client.BaseClient;
 
+import java.io.OutputStream;
+import java.util.List;
 import java.util.Map;
 
 @Service
@@ -30,42 +33,79 @@ public class BookingClient extends BaseClient {
         return post("", userId, bookingDto);
     }
 
+    public ResponseEntity<Object> addBookings(Long userId, List<BookingDto> bookingDtos) {
+        return post("/batch", userId, bookingDtos);
+    }
+
     public ResponseEntity<Object> getBooking(Long userId, Long bookingId) {
         return get("/" + bookingId, userId);
     }
 
-    public ResponseEntity<Object> getBookingWithOwner(Long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getBookingWithOwner(Long userId, Integer from, Integer size, Boolean total) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
+                "size", size,
+                "total", total
+        );
+        return get("/owner?from={from}&size={size}&total={total}", userId, parameters);
+    }
+
+    public void exportBookings(Long userId, String role, OutputStream out) {
+        Map<String, Object> parameters = Map.of(
+                "role", role
+        );
+        stream("/export?role={role}", userId, parameters, out);
+    }
+
+    public ResponseEntity<Object> getOwnerBookingSummary(Long userId) {
+        return get("/owner/summary", userId);
+    }
+
+    public ResponseEntity<Object> getBookingWithOwnerAfterCursor(Long userId, State state, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
                 "size", size
         );
-        return get("/owner?from={from}&size={size}", userId, parameters);
+        return get("/owner?state={state}&cursor={cursor}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getBookingWithOwnerWithState(Long userId, State state, Integer from, Integer size) {
+    public ResponseEntity<Object> getBookingWithOwnerWithState(Long userId, State state, Integer from, Integer size, Boolean total) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
-                "size", size
+                "size", size,
+                "total", total
         );
-        return get("/owner?state={state}&from={from}&size={size}", userId, parameters);
+        return get("/owner?state={state}&from={from}&size={size}&total={total}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getUserBookings(Long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getUserBookings(Long userId, Integer from, Integer size, Boolean total) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
+                "size", size,
+                "total", total
+        );
+        return get("?from={from}&size={size}&total={total}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getUserBookingsAfterCursor(Long userId, State state, String cursor, Integer size) {
+        Map<String, Object> parameters = Map.of(
+                "state", state.name(),
+                "cursor", cursor,
                 "size", size
         );
-        return get("?from={from}&size={size}", userId, parameters);
+        return get("?state={state}&cursor={cursor}&size={size}", userId, parameters);
     }
 
-    public ResponseEntity<Object> getUserBookingsWithState(Long userId, State state, Integer from, Integer size) {
+    public ResponseEntity<Object> getUserBookingsWithState(Long userId, State state, Integer from, Integer size, Boolean total) {
         Map<String, Object> parameters = Map.of(
                 "state", state.name(),
                 "from", from,
-                "size", size
+                "size", size,
+                "total", total
         );
-        return get("?state={state}&from={from}&size={size}", userId, parameters);
+        return get("?state={state}&from={from}&size={size}&total={total}", userId, parameters);
     }
 
     public void deleteBooking(Long userId, Long bookingId) {
@@ -79,6 +119,10 @@ public class BookingClient extends BaseClient {
         return patch("/" + bookingId + "?approved={approved}", userId, parameters, null);
     }
 
+    public ResponseEntity<Object> updateBookings(Long userId, BookingApprovalDto bookingApprovalDto) {
+        return patch("/approval", userId, bookingApprovalDto);
+    }
+
     public void cancelBooking(Long userId, Long bookingId) {
         put("/cancel/" + bookingId, userId, null);
     }
@@ -2,16 +2,23 @@ package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.error.StateSubset;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.util.List;
 
 @Controller
 @RequestMapping(path = "/bookings")
@@ -28,6 +35,14 @@ public class BookingController {
         return bookingClient.addBooking(userId, bookingDto);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<Object> addBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                              @RequestBody @NotEmpty @Size(max = 500)
+                                              List<@Valid BookingDto> bookingDtos) {
+        log.info(String.format("add %d bookings", bookingDtos.size()));
+        return bookingClient.addBookings(userId, bookingDtos);
+    }
+
     @GetMapping("/{bookingId}")
     public ResponseEntity<Object> getBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
                                              @PathVariable Long bookingId) {
@@ -38,37 +53,77 @@ public class BookingController {
     @GetMapping("/owner")
     public ResponseEntity<Object> getBookingWithOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                       @RequestParam(required = false, defaultValue = "0") @Min(0) int from,
-                                                      @RequestParam(required = false, defaultValue = "10") @Min(1) int size) {
+                                                      @RequestParam(required = false, defaultValue = "10") @Min(1) int size,
+                                                      @RequestParam(required = false, defaultValue = "false") Boolean total) {
         log.info(String.format("get owner id: %d bookings", userId));
-        return bookingClient.getBookingWithOwner(userId, from, size);
+        return bookingClient.getBookingWithOwner(userId, from, size, total);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                @StateSubset(enumClass = BookingRole.class)
+                                                                @RequestParam(defaultValue = "BOOKER") String role) {
+        log.info(String.format("export user id: %d bookings as %s", userId, role));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> bookingClient.exportBookings(userId, role, out));
+    }
+
+    @GetMapping("/owner/summary")
+    public ResponseEntity<Object> getOwnerBookingSummary(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        log.info(String.format("get owner id: %d booking summary", userId));
+        return bookingClient.getOwnerBookingSummary(userId);
     }
 
-    @GetMapping(value = "/owner", params = "state")
+    @GetMapping(value = "/owner", params = "cursor")
+    public ResponseEntity<Object> getBookingWithOwnerAfterCursor(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                 @StateSubset(enumClass = State.class)
+                                                                 @RequestParam(defaultValue = "ALL") String state,
+                                                                 @RequestParam String cursor,
+                                                                 @RequestParam(required = false, defaultValue = "10") @Min(1) int size) {
+        log.info(String.format("get owner id: %d bookings after cursor", userId));
+        return bookingClient.getBookingWithOwnerAfterCursor(userId, State.valueOf(state), cursor, size);
+    }
+
+    @GetMapping(value = "/owner", params = {"state", "!cursor"})
     public ResponseEntity<Object> getBookingWithOwnerWithState(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                                @StateSubset(enumClass = State.class)
                                                                @RequestParam(defaultValue = "ALL") String state,
                                                                @RequestParam(required = false, defaultValue = "0") @Min(0) int from,
-                                                               @RequestParam(required = false, defaultValue = "10") @Min(1) int size) {
+                                                               @RequestParam(required = false, defaultValue = "10") @Min(1) int size,
+                                                               @RequestParam(required = false, defaultValue = "false") Boolean total) {
         log.info(String.format("get owner id: %d bookings with state", userId));
-        return bookingClient.getBookingWithOwnerWithState(userId, State.valueOf(state), from, size);
+        return bookingClient.getBookingWithOwnerWithState(userId, State.valueOf(state), from, size, total);
     }
 
     @GetMapping
     public ResponseEntity<Object> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                   @RequestParam(required = false, defaultValue = "0") @Min(0) int from,
-                                                  @RequestParam(required = false, defaultValue = "10") @Min(1) int size) {
+                                                  @RequestParam(required = false, defaultValue = "10") @Min(1) int size,
+                                                  @RequestParam(required = false, defaultValue = "false") Boolean total) {
         log.info(String.format("get user id: %d bookings", userId));
-        return bookingClient.getUserBookings(userId, from, size);
+        return bookingClient.getUserBookings(userId, from, size, total);
+    }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<Object> getUserBookingsAfterCursor(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                             @StateSubset(enumClass = State.class)
+                                                             @RequestParam(defaultValue = "ALL") String state,
+                                                             @RequestParam String cursor,
+                                                             @RequestParam(required = false, defaultValue = "10") @Min(1) int size) {
+        log.info(String.format("get user id: %d bookings after cursor", userId));
+        return bookingClient.getUserBookingsAfterCursor(userId, State.valueOf(state), cursor, size);
     }
 
-    @GetMapping(params = "state")
+    @GetMapping(params = {"state", "!cursor"})
     public ResponseEntity<Object> getUserBookingsWithState(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                            @StateSubset(enumClass = State.class)
                                                            @RequestParam(defaultValue = "ALL") String state,
                                                            @RequestParam(required = false, defaultValue = "0") @Min(0) int from,
-                                                           @RequestParam(required = false, defaultValue = "10") @Min(1) int size) {
+                                                           @RequestParam(required = false, defaultValue = "10") @Min(1) int size,
+                                                           @RequestParam(required = false, defaultValue = "false") Boolean total) {
         log.info(String.format("get user id: %d bookings with state %s", userId, state));
-        return bookingClient.getUserBookingsWithState(userId, State.valueOf(state), from, size);
+        return bookingClient.getUserBookingsWithState(userId, State.valueOf(state), from, size, total);
     }
 
     @DeleteMapping("/{bookingId}")
@@ -86,6 +141,14 @@ public class BookingController {
         return bookingClient.updateBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/approval")
+    public ResponseEntity<Object> updateBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @Valid @RequestBody BookingApprovalDto bookingApprovalDto) {
+        log.info(String.format("owner id: %d decides on %d bookings", userId,
+                bookingApprovalDto.getBookingIds().size()));
+        return bookingClient.updateBookings(userId, bookingApprovalDto);
+    }
+
     @PutMapping("/cancel/{bookingId}")
     public void cancelBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
                               @PathVariable Long bookingId) {
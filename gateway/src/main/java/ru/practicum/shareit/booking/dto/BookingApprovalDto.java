@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.List;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BookingApprovalDto {
+    @NotEmpty
+    @Size(max = 500)
+    private List<@NotNull Long> bookingIds;
+    @NotNull
+    private Boolean approved;
+}
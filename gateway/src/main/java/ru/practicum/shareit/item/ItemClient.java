@@ -10,6 +10,7 @@ import org.springframework.web.util.DefaultUriBuilderFactory;
 import ru.practicum.shareit.client.BaseClient;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import java.time.LocalDateTime;
 import java.util.Map;
 
 @Service
@@ -41,11 +42,20 @@ public class ItemClient extends BaseClient {
         return get("/" + itemId, userId);
     }
 
-    public ResponseEntity<Object> getUserItems(Long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getItemAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        Map<String, Object> parameters = Map.of(
+                "from", from.toString(),
+                "to", to.toString());
+        return get("/" + itemId + "/availability?from={from}&to={to}", userId, parameters);
+    }
+
+    public ResponseEntity<Object> getUserItems(Long userId, Integer from, Integer size, Boolean total) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
-                "size", size);
-        return get("?from={from}&size={size}", userId, parameters);
+                "size", size,
+                "total", total
+        );
+        return get("?from={from}&size={size}&total={total}", userId, parameters);
     }
 
     public ResponseEntity<Object> searchForAnItem(String text, Long userId, Integer from, Integer size) {
@@ -56,6 +66,13 @@ public class ItemClient extends BaseClient {
         return get("/search?text={text}&from={from}&size={size}", userId, parameters);
     }
 
+    public ResponseEntity<Object> suggestItemNames(String prefix, Long userId, Integer limit) {
+        Map<String, Object> parameters = Map.of(
+                "prefix", prefix,
+                "limit", limit);
+        return get("/suggest?prefix={prefix}&limit={limit}", userId, parameters);
+    }
+
     public void deleteItem(Long userId, Long itemId) {
         delete("/" + itemId, userId);
     }
@@ -2,6 +2,7 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.validation.annotation.Validated;
@@ -9,6 +10,9 @@ import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import java.time.LocalDateTime;
 
 @Controller
 @RequestMapping(path = "/items")
@@ -48,12 +52,24 @@ public class ItemController {
         return itemClient.getItem(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public ResponseEntity<Object> getItemAvailability(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                      @PathVariable Long itemId,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                      LocalDateTime from,
+                                                      @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                      LocalDateTime to) {
+        log.info(String.format("get item id %d availability", itemId));
+        return itemClient.getItemAvailability(userId, itemId, from, to);
+    }
+
     @GetMapping
     public ResponseEntity<Object> getUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
                                                @RequestParam(required = false, defaultValue = "0") int from,
-                                               @RequestParam(required = false, defaultValue = "10") int size) {
+                                               @RequestParam(required = false, defaultValue = "10") int size,
+                                               @RequestParam(required = false, defaultValue = "false") Boolean total) {
         log.info("get user items");
-        return itemClient.getUserItems(userId, from, size);
+        return itemClient.getUserItems(userId, from, size, total);
     }
 
     @GetMapping("/search")
@@ -65,6 +81,15 @@ public class ItemController {
         return  itemClient.searchForAnItem(text, userId, from, size);
     }
 
+    @GetMapping("/suggest")
+    public ResponseEntity<Object> suggestItemNames(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                   @RequestParam String prefix,
+                                                   @RequestParam(required = false, defaultValue = "10")
+                                                   @Min(1) @Max(50) int limit) {
+        log.info(String.format("suggest item names for prefix: %s", prefix));
+        return itemClient.suggestItemNames(prefix, userId, limit);
+    }
+
     @DeleteMapping("/{itemId}")
     public void deleteItem(@RequestHeader("X-Sharer-User-Id") Long userId, @PathVariable Long itemId) {
         log.info(String.format("delete item id %d", itemId));
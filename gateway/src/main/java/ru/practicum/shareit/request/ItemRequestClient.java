@@ -41,11 +41,13 @@ public class ItemRequestClient extends BaseClient {
         return get("", userId);
     }
 
-    public ResponseEntity<Object> getAllRequests(Long userId, Integer from, Integer size) {
+    public ResponseEntity<Object> getAllRequests(Long userId, Integer from, Integer size, Boolean total) {
         Map<String, Object> parameters = Map.of(
                 "from", from,
-                "size", size);
-        return get("/all/?from={from}&size={size}", userId, parameters);
+                "size", size,
+                "total", total
+        );
+        return get("/all/?from={from}&size={size}&total={total}", userId, parameters);
     }
 
     public void deleteItemRequest(Long userId, Long itemRequestId) {
@@ -51,9 +51,10 @@ public class ItemRequestController {
     @GetMapping("/all")
     public ResponseEntity<Object> getAllRequests(@RequestHeader("X-Sharer-User-Id") long userId,
                                                  @RequestParam(required = false, defaultValue = "0") @Min(0) Integer from,
-                                                 @RequestParam(required = false, defaultValue = "10") @Min(1) Integer size) {
+                                                 @RequestParam(required = false, defaultValue = "10") @Min(1) Integer size,
+                                                 @RequestParam(required = false, defaultValue = "false") Boolean total) {
         log.info("get all requests");
-        return itemRequestClient.getAllRequests(userId, from, size);
+        return itemRequestClient.getAllRequests(userId, from, size, total);
     }
 
     @DeleteMapping("/{itemRequestId}")
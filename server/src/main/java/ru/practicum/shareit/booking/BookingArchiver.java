@@ -0,0 +1,32 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+public class BookingArchiver {
+    private final BookingRepository bookingRepository;
+    private final Duration horizon;
+
+    public BookingArchiver(BookingRepository bookingRepository,
+                           @Value("${shareit.booking.archive.horizon:365d}") Duration horizon) {
+        this.bookingRepository = bookingRepository;
+        this.horizon = horizon;
+    }
+
+    @Scheduled(cron = "${shareit.booking.archive.cron:0 0 3 * * *}")
+    @Transactional
+    public int archive() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(horizon);
+        int archived = bookingRepository.archiveEndedBefore(cutoff);
+        log.info("archived {} bookings ended before {}", archived, cutoff);
+        return archived;
+    }
+}
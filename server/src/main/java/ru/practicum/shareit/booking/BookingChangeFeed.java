@@ -0,0 +1,63 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingChange;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+@Slf4j
+@Component
+public class BookingChangeFeed {
+    private final BookingEventRepository bookingEventRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final Duration grace;
+    private final Map<Long, LocalDateTime> seen = new HashMap<>();
+    private final Counter failedChanges;
+    private LocalDateTime lastPoll = LocalDateTime.now();
+
+    public BookingChangeFeed(BookingEventRepository bookingEventRepository,
+                             ApplicationEventPublisher applicationEventPublisher,
+                             MeterRegistry meterRegistry,
+                             @Value("${shareit.booking.feed.grace:PT30S}") Duration grace) {
+        this.bookingEventRepository = bookingEventRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.grace = grace;
+        failedChanges = meterRegistry.counter("shareit.booking.feed.failed");
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.feed.interval:PT1S}")
+    public synchronized int poll() {
+        LocalDateTime pollStart = LocalDateTime.now();
+        LocalDateTime since = lastPoll.minus(grace);
+        int delivered = 0;
+        for (BookingEvent event : bookingEventRepository.findByCreatedGreaterThanEqualOrderById(since)) {
+            if (seen.putIfAbsent(event.getId(), event.getCreated()) == null) {
+                deliver(event);
+                delivered++;
+            }
+        }
+        seen.values().removeIf(x -> x.isBefore(since));
+        lastPoll = pollStart;
+        return delivered;
+    }
+
+    private void deliver(BookingEvent event) {
+        try {
+            applicationEventPublisher.publishEvent(new BookingChange(event.getBookingId(), event.getItemId(),
+                    event.getType()));
+        } catch (RuntimeException e) {
+            failedChanges.increment();
+            log.warn("booking change {} was not applied locally", event.getId(), e);
+        }
+    }
+}
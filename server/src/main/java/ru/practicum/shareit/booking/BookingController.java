@@ -1,19 +1,33 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingFullDto;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.util.TotalCountResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Map;
 
 @Slf4j
 @RequiredArgsConstructor
 @RestController
 @RequestMapping(path = "/bookings")
 public class BookingController {
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingFullDto addBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
@@ -21,6 +35,12 @@ public class BookingController {
         return bookingService.addBooking(bookingDto, userId);
     }
 
+    @PostMapping("/batch")
+    public List<BookingFullDto> addBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                            @RequestBody List<BookingDto> bookingDtos) {
+        return bookingService.addBookings(bookingDtos, userId);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingFullDto getBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
                                      @PathVariable Long bookingId) {
@@ -28,37 +48,86 @@ public class BookingController {
     }
 
     @GetMapping("/owner")
-    public List<BookingFullDto> getBookingWithOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                    @RequestParam int from,
-                                                    @RequestParam int size) {
+    public ResponseEntity<List<BookingFullDto>> getBookingWithOwner(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                    @RequestParam int from,
+                                                                    @RequestParam int size,
+                                                                    @RequestParam(defaultValue = "false") boolean total) {
         List<BookingFullDto> bookings = bookingService.getOwnerBookings(userId, from, size);
-        return bookings;
+        return TotalCountResponse.of(bookings, total, () -> bookingService.countOwnerBookings(userId, State.ALL));
+    }
+
+    @GetMapping("/owner/summary")
+    public Map<State, Long> getOwnerBookingSummary(@RequestHeader("X-Sharer-User-Id") Long userId) {
+        return bookingService.getOwnerBookingSummary(userId);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                @RequestParam(defaultValue = "BOOKER") String role) {
+        BookingRole bookingRole = BookingRole.valueOf(role);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(out -> bookingService.exportBookings(userId, bookingRole, booking -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(booking));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }));
+    }
+
+    @GetMapping(value = "/owner", params = "cursor")
+    public ResponseEntity<List<BookingFullDto>> getBookingWithOwnerAfterCursor(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam(defaultValue = "ALL") String state,
+            @RequestParam String cursor,
+            @RequestParam int size) {
+        List<BookingFullDto> bookings = bookingService.getOwnerBookingsAfter(userId, State.valueOf(state),
+                BookingCursor.decode(cursor), size);
+        return withNextCursor(bookings, size);
     }
 
-    @GetMapping(value = "/owner", params = "state")
-    public List<BookingFullDto> getBookingWithOwnerWithState(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                             @RequestParam String state,
-                                                             @RequestParam int from,
-                                                             @RequestParam int size) {
+    @GetMapping(value = "/owner", params = {"state", "!cursor"})
+    public ResponseEntity<List<BookingFullDto>> getBookingWithOwnerWithState(
+            @RequestHeader("X-Sharer-User-Id") Long userId,
+            @RequestParam String state,
+            @RequestParam int from,
+            @RequestParam int size,
+            @RequestParam(defaultValue = "false") boolean total) {
         List<BookingFullDto> bookings = bookingService.getOwnerBookingsWithState(userId, State.valueOf(state), from, size);
-        return bookings;
+        return TotalCountResponse.of(bookings, total,
+                () -> bookingService.countOwnerBookings(userId, State.valueOf(state)));
     }
 
     @GetMapping
-    public List<BookingFullDto> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                @RequestParam int from,
-                                                @RequestParam int size) {
+    public ResponseEntity<List<BookingFullDto>> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                @RequestParam int from,
+                                                                @RequestParam int size,
+                                                                @RequestParam(defaultValue = "false") boolean total) {
         List<BookingFullDto> bookings = bookingService.getUserBookings(userId, from, size);
-        return bookings;
+        return TotalCountResponse.of(bookings, total, () -> bookingService.countUserBookings(userId, State.ALL));
+    }
+
+    @GetMapping(params = "cursor")
+    public ResponseEntity<List<BookingFullDto>> getUserBookingsAfterCursor(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                           @RequestParam(defaultValue = "ALL") String state,
+                                                                           @RequestParam String cursor,
+                                                                           @RequestParam int size) {
+        List<BookingFullDto> bookings = bookingService.getUserBookingsAfter(userId, State.valueOf(state),
+                BookingCursor.decode(cursor), size);
+        return withNextCursor(bookings, size);
     }
 
-    @GetMapping(params = "state")
-    public List<BookingFullDto> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                @RequestParam(defaultValue = "ALL") String state,
-                                                @RequestParam int from,
-                                                @RequestParam int size) {
+    @GetMapping(params = {"state", "!cursor"})
+    public ResponseEntity<List<BookingFullDto>> getUserBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                @RequestParam(defaultValue = "ALL") String state,
+                                                                @RequestParam int from,
+                                                                @RequestParam int size,
+                                                                @RequestParam(defaultValue = "false") boolean total) {
         List<BookingFullDto> bookings = bookingService.getUserBookingsWithState(userId, State.valueOf(state), from, size);
-        return bookings;
+        return TotalCountResponse.of(bookings, total,
+                () -> bookingService.countUserBookings(userId, State.valueOf(state)));
     }
 
     @DeleteMapping("/{bookingId}")
@@ -73,9 +142,24 @@ public class BookingController {
         return bookingService.updateBooking(userId, bookingId, approved);
     }
 
+    @PatchMapping("/approval")
+    public List<BookingApprovalResultDto> updateBookings(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                         @RequestBody BookingApprovalDto bookingApprovalDto) {
+        return bookingService.updateBookings(userId, bookingApprovalDto.getBookingIds(),
+                bookingApprovalDto.getApproved());
+    }
+
     @PutMapping("/cancel/{bookingId}")
     public void cancelBooking(@RequestHeader("X-Sharer-User-Id") Long userId,
                               @PathVariable Long bookingId) {
         bookingService.cancelBooking(userId, bookingId);
     }
+
+    private ResponseEntity<List<BookingFullDto>> withNextCursor(List<BookingFullDto> bookings, int size) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.size() == size) {
+            response.header(NEXT_CURSOR_HEADER, BookingCursor.of(bookings.get(bookings.size() - 1)).encode());
+        }
+        return response.body(bookings);
+    }
 }
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking.overlap-check", havingValue = "database", matchIfMissing = true)
+public class BookingDatabaseOverlapChecker implements BookingOverlapChecker {
+    private final BookingRepository bookingRepository;
+
+    @Override
+    public boolean isOverlapping(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return bookingRepository.existsByItemIdAndStartBeforeAndEndAfterAndStatusNotIn(itemId, end, start,
+                Status.INACTIVE);
+    }
+}
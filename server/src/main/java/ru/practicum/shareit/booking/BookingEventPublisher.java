@@ -0,0 +1,120 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+@Slf4j
+@Component
+public class BookingEventPublisher {
+    private final BookingEventRepository bookingEventRepository;
+    private final ApplicationEventPublisher applicationEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration retention;
+    private final AtomicLong lagMillis = new AtomicLong();
+    private final Counter publishedEvents;
+    private final Counter failedEvents;
+
+    public BookingEventPublisher(BookingEventRepository bookingEventRepository,
+                                 ApplicationEventPublisher applicationEventPublisher,
+                                 TransactionTemplate transactionTemplate,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${shareit.booking.outbox.batch-size:100}") int batchSize,
+                                 @Value("${shareit.booking.outbox.max-attempts:5}") int maxAttempts,
+                                 @Value("${shareit.booking.outbox.retention:PT10M}") Duration retention) {
+        this.bookingEventRepository = bookingEventRepository;
+        this.applicationEventPublisher = applicationEventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.retention = retention;
+        Gauge.builder("shareit.booking.outbox.lag", lagMillis, x -> x.get() / 1000.0)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        publishedEvents = meterRegistry.counter("shareit.booking.outbox.published");
+        failedEvents = meterRegistry.counter("shareit.booking.outbox.failed");
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.outbox.interval:PT1S}")
+    public int publish() {
+        int published = 0;
+        Set<Long> failedBookings = new HashSet<>();
+        lagMillis.set(0);
+        while (true) {
+            AtomicReference<BookingEvent> current = new AtomicReference<>();
+            try {
+                Integer delivered = transactionTemplate.execute(status -> deliverBatch(failedBookings, current));
+                published += delivered;
+                if (delivered < batchSize) {
+                    break;
+                }
+            } catch (RuntimeException e) {
+                if (current.get() == null) {
+                    throw e;
+                }
+                failedBookings.add(current.get().getBookingId());
+                recordFailure(current.get(), e);
+            }
+        }
+        transactionTemplate.execute(status ->
+                bookingEventRepository.deleteByPublishedBefore(LocalDateTime.now().minus(retention)));
+        publishedEvents.increment(published);
+        if (published > 0) {
+            log.debug("published {} booking events", published);
+        }
+        return published;
+    }
+
+    private int deliverBatch(Set<Long> failedBookings, AtomicReference<BookingEvent> current) {
+        List<BookingEvent> events = bookingEventRepository.findBookingHeadsForUpdate(maxAttempts,
+                PageRequest.of(0, batchSize + failedBookings.size()));
+        List<BookingEvent> delivered = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (BookingEvent event : events) {
+            if (failedBookings.contains(event.getBookingId()) || delivered.size() == batchSize) {
+                continue;
+            }
+            if (lagMillis.get() == 0) {
+                lagMillis.set(Duration.between(event.getCreated(), now).toMillis());
+            }
+            current.set(event);
+            applicationEventPublisher.publishEvent(event);
+            event.setPublished(now);
+            delivered.add(event);
+        }
+        current.set(null);
+        bookingEventRepository.saveAll(delivered);
+        return delivered.size();
+    }
+
+    private void recordFailure(BookingEvent event, RuntimeException e) {
+        failedEvents.increment();
+        transactionTemplate.execute(status -> bookingEventRepository.recordFailure(event.getId(), e.toString()));
+        if (event.getAttempts() + 1 >= maxAttempts) {
+            log.error("booking event {} failed {} times and blocks booking {} until it is resolved", event.getId(),
+                    maxAttempts, event.getBookingId(), e);
+        } else {
+            log.warn("booking event {} failed, attempt {} of {}", event.getId(), event.getAttempts() + 1,
+                    maxAttempts, e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.model.BookingEvent;
+
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface BookingEventRepository extends JpaRepository<BookingEvent, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select e from BookingEvent as e where e.published is null and e.attempts < ?1 " +
+            "and not exists (select p from BookingEvent as p where p.bookingId = e.bookingId " +
+            "and p.published is null and p.id < e.id) order by e.id")
+    List<BookingEvent> findBookingHeadsForUpdate(int maxAttempts, Pageable page);
+
+    List<BookingEvent> findByCreatedGreaterThanEqualOrderById(LocalDateTime since);
+
+    @Modifying
+    @Query("update BookingEvent as e set e.attempts = e.attempts + 1, e.lastError = ?2 where e.id = ?1")
+    int recordFailure(Long id, String error);
+
+    @Modifying
+    @Query("delete from BookingEvent as e where e.published < ?1")
+    int deleteByPublishedBefore(LocalDateTime time);
+}
@@ -0,0 +1,66 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingRefDto;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Component
+public class BookingExpirySweeper {
+    private final BookingRepository bookingRepository;
+    private final BookingEventRepository bookingEventRepository;
+    private final int batchSize;
+    private final DistributionSummary sweptBookings;
+
+    public BookingExpirySweeper(BookingRepository bookingRepository,
+                                BookingEventRepository bookingEventRepository,
+                                MeterRegistry meterRegistry,
+                                @Value("${shareit.booking.expiry.batch-size:500}") int batchSize) {
+        this.bookingRepository = bookingRepository;
+        this.bookingEventRepository = bookingEventRepository;
+        this.batchSize = batchSize;
+        sweptBookings = DistributionSummary.builder("shareit.booking.expiry.swept")
+                .baseUnit("bookings")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.booking.expiry.interval:PT1M}",
+            initialDelayString = "${shareit.booking.expiry.interval:PT1M}")
+    @Transactional
+    public int sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        List<BookingRefDto> stale = bookingRepository.findRefsForUpdateByStatusAndStartBefore(Status.WAITING, now,
+                PageRequest.of(0, batchSize));
+        int expired = stale.isEmpty() ? 0 : bookingRepository.updateStatusByIdIn(stale.stream()
+                .map(BookingRefDto::getId)
+                .collect(Collectors.toList()), Status.WAITING, Status.EXPIRED);
+        if (expired > 0) {
+            bookingEventRepository.saveAll(stale.stream()
+                    .map(x -> BookingEvent.builder()
+                            .bookingId(x.getId())
+                            .itemId(x.getItemId())
+                            .type(BookingEventType.EXPIRED)
+                            .created(now)
+                            .build())
+                    .collect(Collectors.toList()));
+        }
+        sweptBookings.record(expired);
+        if (expired > 0) {
+            log.info("expired {} waiting bookings started before {}", expired, now);
+        }
+        return expired;
+    }
+}
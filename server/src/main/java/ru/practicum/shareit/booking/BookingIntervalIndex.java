@@ -0,0 +1,169 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingChange;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.booking.overlap-check", havingValue = "index")
+public class BookingIntervalIndex implements BookingOverlapChecker {
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean isOverlapping(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return timelines.computeIfAbsent(itemId, this::loadTimeline).countOverlapping(toKey(start), toKey(end)) > 0;
+    }
+
+    @Override
+    public void add(Booking booking) {
+        if (!Status.isActive(booking.getStatus())) {
+            return;
+        }
+        index(booking);
+        onRollback(() -> unindex(booking));
+    }
+
+    @Override
+    public void remove(Booking booking) {
+        unindex(booking);
+        onRollback(() -> index(booking));
+    }
+
+    @Override
+    public void update(Booking booking, Status previousStatus) {
+        if (Status.isActive(previousStatus) == Status.isActive(booking.getStatus())) {
+            return;
+        }
+        if (Status.isActive(booking.getStatus())) {
+            add(booking);
+        } else {
+            remove(booking);
+        }
+    }
+
+    @Override
+    public void evict(Long itemId) {
+        timelines.remove(itemId);
+    }
+
+    @EventListener
+    public void onBookingChange(BookingChange change) {
+        if (change.getType() == BookingEventType.EXPIRED) {
+            evict(change.getItemId());
+        }
+    }
+
+    private void index(Booking booking) {
+        timelines.computeIfPresent(booking.getItem().getId(), (id, timeline) -> {
+            timeline.add(booking.getId(), toKey(booking.getStart()), toKey(booking.getEnd()));
+            return timeline;
+        });
+    }
+
+    private void unindex(Booking booking) {
+        timelines.computeIfPresent(booking.getItem().getId(), (id, timeline) -> {
+            timeline.remove(booking.getId(), toKey(booking.getStart()), toKey(booking.getEnd()));
+            return timeline;
+        });
+    }
+
+    private void onRollback(Runnable compensation) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        compensation.run();
+                    }
+                }
+            });
+        }
+    }
+
+    private ItemTimeline loadTimeline(Long itemId) {
+        ItemTimeline timeline = new ItemTimeline();
+        bookingRepository.findByItemIdOrderByStartDesc(itemId).stream()
+                .filter(x -> Status.isActive(x.getStatus()))
+                .forEach(x -> timeline.add(x.getId(), toKey(x.getStart()), toKey(x.getEnd())));
+        return timeline;
+    }
+
+    private static long toKey(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000_000L + time.getNano();
+    }
+
+    static class ItemTimeline {
+        private final Set<Long> bookingIds = new HashSet<>();
+        private long[] starts = new long[8];
+        private long[] ends = new long[8];
+        private int size;
+
+        synchronized int countOverlapping(long start, long end) {
+            return rank(starts, end) - rank(ends, start + 1);
+        }
+
+        synchronized void add(Long bookingId, long start, long end) {
+            if (!bookingIds.add(bookingId)) {
+                return;
+            }
+            if (size == starts.length) {
+                starts = Arrays.copyOf(starts, size * 2);
+                ends = Arrays.copyOf(ends, size * 2);
+            }
+            insert(starts, start);
+            insert(ends, end);
+            size++;
+        }
+
+        synchronized void remove(Long bookingId, long start, long end) {
+            if (!bookingIds.remove(bookingId)) {
+                return;
+            }
+            delete(starts, start);
+            delete(ends, end);
+            size--;
+        }
+
+        private int rank(long[] keys, long key) {
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (keys[mid] < key) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private void insert(long[] keys, long key) {
+            int position = rank(keys, key);
+            System.arraycopy(keys, position, keys, position + 1, size - position);
+            keys[position] = key;
+        }
+
+        private void delete(long[] keys, long key) {
+            int position = rank(keys, key);
+            System.arraycopy(keys, position + 1, keys, position, size - position - 1);
+        }
+    }
+}
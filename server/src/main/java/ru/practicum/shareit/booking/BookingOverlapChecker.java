@@ -0,0 +1,22 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+
+import java.time.LocalDateTime;
+
+public interface BookingOverlapChecker {
+    boolean isOverlapping(Long itemId, LocalDateTime start, LocalDateTime end);
+
+    default void add(Booking booking) {
+    }
+
+    default void remove(Booking booking) {
+    }
+
+    default void update(Booking booking, Status previousStatus) {
+    }
+
+    default void evict(Long itemId) {
+    }
+}
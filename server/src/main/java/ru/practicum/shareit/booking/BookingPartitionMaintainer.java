@@ -0,0 +1,41 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "spring.sql.init.platform", havingValue = "postgresql")
+public class BookingPartitionMaintainer {
+    private final BookingRepository bookingRepository;
+    private final int yearsAhead;
+
+    public BookingPartitionMaintainer(BookingRepository bookingRepository,
+                                      @Value("${shareit.booking.partition.years-ahead:2}") int yearsAhead) {
+        this.bookingRepository = bookingRepository;
+        this.yearsAhead = yearsAhead;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${shareit.booking.partition.cron:0 30 3 * * *}")
+    @Transactional
+    public int createUpcoming() {
+        int currentYear = LocalDate.now().getYear();
+        int created = 0;
+        for (int year = currentYear; year <= currentYear + yearsAhead; year++) {
+            if (bookingRepository.createYearPartition(year)) {
+                log.info("created bookings partition for {}", year);
+                created++;
+            }
+        }
+        return created;
+    }
+}
@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.State;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BookingQuery {
+    private BookingRole role;
+    private Long userId;
+    @Builder.Default
+    private State state = State.ALL;
+    private LocalDateTime now;
+    private BookingCursor cursor;
+    private int from;
+    private int size;
+}
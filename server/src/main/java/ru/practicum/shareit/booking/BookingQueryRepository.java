@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking;
+
+import ru.practicum.shareit.booking.dto.BookingFullDto;
+import ru.practicum.shareit.booking.model.State;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface BookingQueryRepository {
+
+    List<BookingFullDto> findBookings(BookingQuery query);
+
+    long countBookings(BookingQuery query);
+
+    Map<State, Long> countBookingsByState(BookingQuery query);
+
+    Stream<BookingFullDto> streamBookings(BookingQuery query);
+
+    int archiveEndedBefore(LocalDateTime cutoff);
+
+    int deleteArchivedByItemId(Long itemId);
+
+    boolean createYearPartition(int year);
+}
@@ -0,0 +1,240 @@
+package ru.practicum.shareit.booking;
+
+import org.hibernate.jpa.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingFullDto;
+import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRecord;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.State;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class BookingQueryRepositoryImpl implements BookingQueryRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingFullDto> findBookings(BookingQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteria = cb.createTupleQuery();
+        Root<?> booking = criteria.from(source(query));
+        Join<?, Item> item = booking.join("item");
+        Join<?, User> booker = booking.join("user");
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        Path<Long> id = booking.get("id");
+        List<Predicate> predicates = toPredicates(cb, booking, query);
+        BookingCursor cursor = query.getCursor();
+        if (cursor != null) {
+            predicates.add(cb.or(
+                    cb.lessThan(start, cursor.getStart()),
+                    cb.and(cb.equal(start, cursor.getStart()), cb.lessThan(id, cursor.getId()))));
+        }
+        criteria.multiselect(id, start, end, booking.get("status"),
+                        item.get("id"), item.get("name"), item.get("description"), item.get("available"),
+                        item.get("request").get("id"), booker.get("id"), booker.get("name"), booker.get("email"))
+                .where(predicates.toArray(new Predicate[0]))
+                .orderBy(cb.desc(start), cb.desc(id));
+        int offset = (cursor == null && query.getFrom() > 0) ? query.getFrom() / query.getSize() * query.getSize() : 0;
+        return entityManager.createQuery(criteria)
+                .setFirstResult(offset)
+                .setMaxResults(query.getSize())
+                .getResultStream()
+                .map(this::toBookingFullDto)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public long countBookings(BookingQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> criteria = cb.createQuery(Long.class);
+        Root<?> booking = criteria.from(source(query));
+        criteria.select(cb.count(booking))
+                .where(toPredicates(cb, booking, query).toArray(new Predicate[0]));
+        return entityManager.createQuery(criteria).getSingleResult();
+    }
+
+    @Override
+    public Map<State, Long> countBookingsByState(BookingQuery query) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> criteria = cb.createTupleQuery();
+        Root<BookingRecord> booking = criteria.from(BookingRecord.class);
+        List<Selection<?>> counts = new ArrayList<>();
+        for (State state : State.values()) {
+            Predicate predicate = toStatePredicate(cb, booking, state, query.getNow());
+            counts.add(predicate == null ? cb.count(booking)
+                    : cb.sum(cb.<Long>selectCase().when(predicate, 1L).otherwise(0L)));
+        }
+        criteria.multiselect(counts)
+                .where(toPredicates(cb, booking, query).toArray(new Predicate[0]));
+        Tuple row = entityManager.createQuery(criteria).getSingleResult();
+        Map<State, Long> result = new EnumMap<>(State.class);
+        for (State state : State.values()) {
+            Long count = row.get(state.ordinal(), Long.class);
+            result.put(state, count == null ? 0L : count);
+        }
+        return result;
+    }
+
+    @Override
+    public Stream<BookingFullDto> streamBookings(BookingQuery query) {
+        String filter = (query.getRole() == BookingRole.OWNER) ? "b.ownerId = :userId" : "b.user.id = :userId";
+        AtomicInteger rows = new AtomicInteger();
+        return entityManager.createQuery("select b from BookingRecord as b join fetch b.item " +
+                        "join fetch b.user where " + filter + " order by b.start desc, b.id desc", BookingRecord.class)
+                .setParameter("userId", query.getUserId())
+                .setHint(QueryHints.HINT_FETCH_SIZE, query.getSize())
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream()
+                .map(x -> {
+                    BookingFullDto booking = BookingMapper.toBookingDtoFull(x);
+                    if (rows.incrementAndGet() % query.getSize() == 0) {
+                        entityManager.clear();
+                    }
+                    return booking;
+                });
+    }
+
+    @Override
+    public int archiveEndedBefore(LocalDateTime cutoff) {
+        entityManager.createNativeQuery("insert into bookings_archive (id, start_date, end_date, item_id, booker_id, " +
+                        "owner_id, status) select id, start_date, end_date, item_id, booker_id, owner_id, status " +
+                        "from bookings " +
+                        "where end_date < ?1 and id not in (select id from bookings_archive)")
+                .setParameter(1, cutoff)
+                .executeUpdate();
+        return entityManager.createNativeQuery("delete from bookings " +
+                        "where end_date < ?1 and id in (select id from bookings_archive)")
+                .setParameter(1, cutoff)
+                .executeUpdate();
+    }
+
+    @Override
+    public int deleteArchivedByItemId(Long itemId) {
+        return entityManager.createNativeQuery("delete from bookings_archive where item_id = ?1")
+                .setParameter(1, itemId)
+                .executeUpdate();
+    }
+
+    @Override
+    public boolean createYearPartition(int year) {
+        String partition = "bookings_" + year;
+        entityManager.createNativeQuery("select count(*) from " +
+                        "(select pg_advisory_xact_lock(hashtext('bookings'))) as l")
+                .getSingleResult();
+        if (entityManager.createNativeQuery("select cast(to_regclass(?1) as varchar)")
+                .setParameter(1, partition)
+                .getSingleResult() != null) {
+            return false;
+        }
+        LocalDateTime from = LocalDate.of(year, 1, 1).atStartOfDay();
+        LocalDateTime to = from.plusYears(1);
+        String create = String.format("create table %s partition of bookings for values from ('%s') to ('%s')",
+                partition, from.toLocalDate(), to.toLocalDate());
+        Number stray = (Number) entityManager.createNativeQuery("select count(*) from bookings_default " +
+                        "where start_date >= ?1 and start_date < ?2")
+                .setParameter(1, from)
+                .setParameter(2, to)
+                .getSingleResult();
+        if (stray.longValue() == 0) {
+            entityManager.createNativeQuery(create).executeUpdate();
+            return true;
+        }
+        entityManager.createNativeQuery("alter table bookings detach partition bookings_default").executeUpdate();
+        entityManager.createNativeQuery(create).executeUpdate();
+        entityManager.createNativeQuery("insert into bookings select * from bookings_default " +
+                        "where start_date >= ?1 and start_date < ?2")
+                .setParameter(1, from)
+                .setParameter(2, to)
+                .executeUpdate();
+        entityManager.createNativeQuery("delete from bookings_default where start_date >= ?1 and start_date < ?2")
+                .setParameter(1, from)
+                .setParameter(2, to)
+                .executeUpdate();
+        entityManager.createNativeQuery("alter table bookings attach partition bookings_default default")
+                .executeUpdate();
+        return true;
+    }
+
+    private Class<?> source(BookingQuery query) {
+        switch (query.getState()) {
+            case CURRENT:
+            case FUTURE:
+                return Booking.class;
+            default:
+                return BookingRecord.class;
+        }
+    }
+
+    private List<Predicate> toPredicates(CriteriaBuilder cb, Root<?> booking, BookingQuery query) {
+        List<Predicate> predicates = new ArrayList<>();
+        switch (query.getRole()) {
+            case OWNER:
+                predicates.add(cb.equal(booking.get("ownerId"), query.getUserId()));
+                break;
+            default:
+                predicates.add(cb.equal(booking.get("user").get("id"), query.getUserId()));
+        }
+        Predicate state = toStatePredicate(cb, booking, query.getState(), query.getNow());
+        if (state != null) {
+            predicates.add(state);
+        }
+        return predicates;
+    }
+
+    private Predicate toStatePredicate(CriteriaBuilder cb, Root<?> booking, State state, LocalDateTime now) {
+        Path<LocalDateTime> start = booking.get("start");
+        Path<LocalDateTime> end = booking.get("end");
+        switch (state) {
+            case CURRENT:
+                return cb.and(cb.lessThan(start, now), cb.greaterThan(end, now));
+            case PAST:
+                return cb.lessThan(end, now);
+            case FUTURE:
+                return cb.greaterThan(start, now);
+            case WAITING:
+                return cb.equal(booking.get("status"), Status.WAITING);
+            case REJECTED:
+                return cb.equal(booking.get("status"), Status.REJECTED);
+            default:
+                return null;
+        }
+    }
+
+    private BookingFullDto toBookingFullDto(Tuple row) {
+        return BookingFullDto.builder()
+                .id(row.get(0, Long.class))
+                .start(row.get(1, LocalDateTime.class))
+                .end(row.get(2, LocalDateTime.class))
+                .status(row.get(3, Status.class))
+                .item(new ItemDto(row.get(4, Long.class), row.get(5, String.class), row.get(6, String.class),
+                        row.get(7, Boolean.class), row.get(8, Long.class)))
+                .booker(new UserDto(row.get(9, Long.class), row.get(10, String.class), row.get(11, String.class)))
+                .build();
+    }
+}
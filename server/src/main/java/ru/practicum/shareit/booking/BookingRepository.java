@@ -1,53 +1,71 @@
 package ru.practicum.shareit.booking;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingRefDto;
+import ru.practicum.shareit.booking.dto.TimeSlotDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRecord;
 import ru.practicum.shareit.booking.model.Status;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingQueryRepository {
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+    @EntityGraph("Booking.details")
+    Optional<Booking> findDetailedById(Long id);
 
-    Page<Booking> findByUserId(Long userId, Pageable page);
+    @Query("select b from BookingRecord as b join fetch b.item join fetch b.user where b.id = ?1")
+    Optional<BookingRecord> findRecordById(Long id);
 
-    Page<Booking> findByUserIdOrderByStartDesc(Long userId, Pageable page);
+    @Query("select b.id from BookingRecord as b where b.item.id = ?1")
+    List<Long> findRecordIdsByItemId(Long itemId);
 
-    @Query("select b from Booking as b join b.user as u join b.item as i where u.id = ?1 and i.id = ?2")
-    List<Booking> findUsersBookingForAnItemOrderByStartDesc(Long userId, Long itemId);
+    @Query("select count(b) > 0 from BookingRecord as b " +
+            "where b.user.id = ?1 and b.item.id = ?2 and b.status <> ?3 and b.start < ?4")
+    boolean existsByUserIdAndItemIdAndStatusNotAndStartBefore(Long userId, Long itemId, Status status,
+                                                              LocalDateTime start);
 
     @Query("select b from Booking as b join b.item as i where i.id = ?1 order by b.start desc")
     List<Booking> findByItemIdOrderByStartDesc(Long itemId);
 
-    @Query("select b from Booking as b join b.item as i where i.owner = ?1 ")
-    Page<Booking> findAllOwnerBookings(Long ownerId, Pageable page);
-
-    @Query("select b from Booking as b join b.item as i where i.owner = ?1 order by b.start desc")
-    Page<Booking> findAllOwnerBookingsOrderByStartDesc(Long ownerId, Pageable page);
-
-    @Query("select b from Booking as b join b.item as i where i.owner = ?1 and b.status = ?2")
-    Page<Booking> findAllOwnerBookingsAndStatus(Long ownerId, Status status, Pageable page);
-
-    Page<Booking> findByUserIdAndStatus(Long userId, Status status, Pageable page);
+    Optional<Booking> findFirstByItemIdAndStartBeforeAndStatusNotInOrderByEndDesc(Long itemId, LocalDateTime now,
+                                                                                Collection<Status> statuses);
 
-    @Query("select b from Booking as b join b.item as i where i.owner = ?1 and b.end < ?2")
-    Page<Booking> findByOwnerIdAndEndBefore(Long ownerId, LocalDateTime endDate, Pageable page);
+    Optional<Booking> findFirstByItemIdAndStartAfterAndStatusNotInOrderByEndAsc(Long itemId, LocalDateTime now,
+                                                                              Collection<Status> statuses);
 
-    @Query("select b from Booking as b join b.item as i where i.owner = ?1 and b.start > ?2")
-    Page<Booking> findByOwnerIdAndStartAfter(Long ownerId, LocalDateTime startDate, Pageable page);
+    boolean existsByItemIdAndStartBeforeAndEndAfterAndStatusNotIn(Long itemId, LocalDateTime end, LocalDateTime start,
+                                                                  Collection<Status> statuses);
 
-    @Query("select b from Booking as b join b.item as i where i.owner = ?1 and b.start < ?2 and b.end > ?2")
-    Page<Booking> findByOwnerIdAndTimeCurrent(Long ownerId, LocalDateTime currentDate, Pageable page);
+    @Query("select new ru.practicum.shareit.booking.dto.TimeSlotDto(b.start, b.end) from Booking as b " +
+            "where b.item.id = ?1 and b.start < ?3 and b.end > ?2 and b.status not in ?4 order by b.start")
+    Stream<TimeSlotDto> streamItemBookingSlots(Long itemId, LocalDateTime from, LocalDateTime to,
+                                              Collection<Status> statuses);
 
-    @Query("select b from Booking as b join b.user as u where u.id = ?1 and b.end < ?2")
-    Page<Booking> findByUserIdAndEndBefore(Long userId, LocalDateTime endDate, Pageable page);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "javax.persistence.lock.timeout", value = "-2"))
+    @Query("select new ru.practicum.shareit.booking.dto.BookingRefDto(b.id, b.item.id, b.status) from Booking as b " +
+            "where b.status = ?1 and b.start < ?2 order by b.start, b.id")
+    List<BookingRefDto> findRefsForUpdateByStatusAndStartBefore(Status status, LocalDateTime now, Pageable page);
 
-    @Query("select b from Booking as b join b.user as u where u.id = ?1 and b.start > ?2")
-    Page<Booking> findByUserIdAndStartAfter(Long userId, LocalDateTime startDate, Pageable page);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select new ru.practicum.shareit.booking.dto.BookingRefDto(b.id, b.item.id, b.status) from Booking as b " +
+            "where b.id in ?1 and b.ownerId = ?2 order by b.id")
+    List<BookingRefDto> findRefsForUpdateByIdInAndOwnerId(Collection<Long> ids, Long ownerId);
 
-    @Query("select b from Booking as b join b.user as u where u.id = ?1 and b.start < ?2 and b.end > ?2")
-    Page<Booking> findByUserIdAndTimeCurrent(Long userId, LocalDateTime currentDate, Pageable page);
+    @Modifying
+    @Query("update Booking as b set b.status = ?3 where b.id in ?1 and b.status = ?2")
+    int updateStatusByIdIn(Collection<Long> ids, Status expected, Status status);
 }
@@ -1,27 +1,48 @@
 package ru.practicum.shareit.booking;
 
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingFullDto;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.State;
 
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingFullDto addBooking(BookingDto bookingDto, Long userId);
 
+    List<BookingFullDto> addBookings(List<BookingDto> bookingDtos, Long userId);
+
     BookingFullDto getBooking(Long bookingId, Long userId);
 
     List<BookingFullDto> getUserBookings(Long userId, int from, int size);
 
     List<BookingFullDto> getOwnerBookings(Long userId, int from, int size);
 
+    List<BookingFullDto> getUserBookingsAfter(Long userId, State state, BookingCursor cursor, int size);
+
+    List<BookingFullDto> getOwnerBookingsAfter(Long userId, State state, BookingCursor cursor, int size);
+
     List<BookingFullDto> getOwnerBookingsWithState(Long userId, State queryStatus, int from, int size);
 
     List<BookingFullDto> getUserBookingsWithState(Long userId, State queryStatus, int from, int size);
 
+    long countUserBookings(Long userId, State state);
+
+    long countOwnerBookings(Long userId, State state);
+
+    Map<State, Long> getOwnerBookingSummary(Long userId);
+
+    void exportBookings(Long userId, BookingRole role, Consumer<BookingFullDto> consumer);
+
     void deleteBooking(Long bookingId);
 
     BookingFullDto updateBooking(Long userId, Long bookingId, Boolean approved);
 
+    List<BookingApprovalResultDto> updateBookings(Long userId, List<Long> bookingIds, Boolean approved);
+
     void cancelBooking(Long userId, Long bookingId);
 }
@@ -1,162 +1,307 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingFullDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingRefDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.*;
 import ru.practicum.shareit.error.*;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.ApproximateCounter;
 
 import java.time.LocalDateTime;
 import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 public class BookingServiceImp implements BookingService {
+    private static final int EXPORT_FETCH_SIZE = 500;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final BookingRepository bookingRepository;
+    private final BookingOverlapChecker bookingOverlapChecker;
+    private final ApproximateCounter approximateCounter;
+    private final BookingEventRepository bookingEventRepository;
+    private final BookingViewCache bookingViewCache;
 
     @Override
+    @Transactional
     public BookingFullDto addBooking(BookingDto bookingDto, Long userId) {
         bookingDto.setBookerId(userId);
         User booker = userRepository.findById(bookingDto.getBookerId()).orElseThrow(
                 () -> new EntityNotFoundException(String.format("user id: %d was not found", userId)));
-        if (bookingDto.getStart().isAfter(bookingDto.getEnd()) || bookingDto.getStart().isEqual(bookingDto.getEnd()) ||
-                bookingDto.getStart().isBefore(LocalDateTime.now(ZoneId.of("UTC")))) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "wrong booking attributes");
-        }
-        Item item = itemRepository.findById(bookingDto.getItemId()).orElseThrow(
+        checkBookingTime(bookingDto);
+        Item item = itemRepository.findByIdForUpdate(bookingDto.getItemId()).orElseThrow(
                 () -> new EntityNotFoundException(String.format("item id: %d was not found", bookingDto.getItemId())));
-        if (item.getOwner().equals(userId)) {
-            throw new UserMissMatchException("user is the owner");
-        }
-        if (!item.getAvailable().booleanValue()) {
-            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "item is unavailable");
-        }
+        checkBookingItem(item, userId);
         Booking booking = BookingMapper.toBooking(bookingDto, item, booker);
-        if (checkTimeOverlap(booking)) {
+        if (bookingOverlapChecker.isOverlapping(item.getId(), booking.getStart(), booking.getEnd())) {
             throw new TimeOverlapException("wrong bookings time period");
         }
+        Booking savedBooking = bookingRepository.save(booking);
+        bookingOverlapChecker.add(savedBooking);
+        bookingEventRepository.save(toEvent(savedBooking, BookingEventType.CREATED));
         BookingFullDto addedBooking =
-                Optional.of(BookingMapper.toBookingDtoFull(bookingRepository.save(booking)))
+                Optional.of(BookingMapper.toBookingDtoFull(savedBooking))
                         .orElseThrow(() -> new EntityNotFoundException("booking was not added"));
         return addedBooking;
     }
 
     @Override
+    @Transactional
+    public List<BookingFullDto> addBookings(List<BookingDto> bookingDtos, Long userId) {
+        User booker = userRepository.findById(userId).orElseThrow(
+                () -> new EntityNotFoundException(String.format("user id: %d was not found", userId)));
+        bookingDtos.forEach(this::checkBookingTime);
+        Set<Long> itemIds = bookingDtos.stream()
+                .map(BookingDto::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllByIdForUpdate(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, x -> x));
+        List<Booking> bookings = new ArrayList<>();
+        for (BookingDto bookingDto : bookingDtos) {
+            bookingDto.setBookerId(userId);
+            Item item = items.get(bookingDto.getItemId());
+            if (item == null) {
+                throw new EntityNotFoundException(String.format("item id: %d was not found", bookingDto.getItemId()));
+            }
+            checkBookingItem(item, userId);
+            Booking booking = BookingMapper.toBooking(bookingDto, item, booker);
+            if (bookingOverlapChecker.isOverlapping(item.getId(), booking.getStart(), booking.getEnd())) {
+                throw new TimeOverlapException("wrong bookings time period");
+            }
+            bookings.add(booking);
+        }
+        checkBatchTimeOverlap(bookings);
+        List<Booking> savedBookings = bookingRepository.saveAll(bookings);
+        savedBookings.forEach(bookingOverlapChecker::add);
+        bookingEventRepository.saveAll(savedBookings.stream()
+                .map(x -> toEvent(x, BookingEventType.CREATED))
+                .collect(Collectors.toList()));
+        return savedBookings.stream()
+                .map(x -> BookingMapper.toBookingDtoFull(x))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public BookingFullDto getBooking(Long bookingId, Long userId) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new EntityNotFoundException("booking was not found"));
-        if (!booking.getUser().getId().equals(userId) && !booking.getItem().getOwner().equals(userId)) {
+        BookingView view = bookingViewCache.get(bookingId).orElseGet(() -> loadBookingView(bookingId));
+        if (!view.getBookerId().equals(userId) && !view.getOwnerId().equals(userId)) {
             throw new EntityNotFoundException("booking was not found");
         }
-        return BookingMapper.toBookingDtoFull(booking);
+        return BookingMapper.toBookingDtoFull(view);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookingFullDto> getOwnerBookings(Long userId, int from, int size) {
-        userRepository.findById(userId).orElseThrow(
-                () -> new EntityNotFoundException(String.format("user id: %d was not found", userId)));
-        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-        return bookingRepository.findAllOwnerBookingsOrderByStartDesc(userId, page).stream()
-                .map(x -> BookingMapper.toBookingDtoFull(x))
-                .sorted((a, b) -> b.getStart().compareTo(a.getStart()))
-                .collect(Collectors.toList());
+        return getOwnerBookingsWithState(userId, State.ALL, from, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingFullDto> getUserBookingsAfter(Long userId, State state, BookingCursor cursor, int size) {
+        return findBookings(BookingQuery.builder()
+                .role(BookingRole.BOOKER)
+                .userId(userId)
+                .state(state)
+                .cursor(cursor)
+                .size(size)
+                .build());
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<BookingFullDto> getOwnerBookingsAfter(Long userId, State state, BookingCursor cursor, int size) {
+        return findBookings(BookingQuery.builder()
+                .role(BookingRole.OWNER)
+                .userId(userId)
+                .state(state)
+                .cursor(cursor)
+                .size(size)
+                .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public List<BookingFullDto> getOwnerBookingsWithState(Long userId, State queryStatus, int from, int size) {
-        userRepository.findById(userId).orElseThrow(
-                () -> new EntityNotFoundException(String.format("user id: %d was not found", userId)));
-        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-        switch (queryStatus) {
-            case WAITING: return getBookingsWithConditionAndState(userId, Status.WAITING,
-                    bookingRepository::findAllOwnerBookingsAndStatus, page);
-            case REJECTED: return getBookingsWithConditionAndState(userId, Status.REJECTED,
-                    bookingRepository::findAllOwnerBookingsAndStatus, page);
-            case ALL: return getBookingsWithCondition(userId, bookingRepository::findAllOwnerBookings, page);
-            case PAST: return getBookingsWithTimeCon(userId, bookingRepository::findByOwnerIdAndEndBefore, page);
-            case FUTURE: return getBookingsWithTimeCon(userId, bookingRepository::findByOwnerIdAndStartAfter, page);
-            case CURRENT: return getBookingsWithTimeCon(userId, bookingRepository::findByOwnerIdAndTimeCurrent, page);
-            default: return getBookingsWithCondition(userId, bookingRepository::findAllOwnerBookings, page);
-        }
+        return findBookings(BookingQuery.builder()
+                .role(BookingRole.OWNER)
+                .userId(userId)
+                .state(queryStatus)
+                .from(from)
+                .size(size)
+                .build());
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookingFullDto> getUserBookingsWithState(Long userId, State queryStatus, int from, int size) {
+        return findBookings(BookingQuery.builder()
+                .role(BookingRole.BOOKER)
+                .userId(userId)
+                .state(queryStatus)
+                .from(from)
+                .size(size)
+                .build());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<BookingFullDto> getUserBookings(Long userId, int from, int size) {
+        return getUserBookingsWithState(userId, State.ALL, from, size);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countUserBookings(Long userId, State state) {
+        return countBookings(BookingRole.BOOKER, userId, state);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long countOwnerBookings(Long userId, State state) {
+        return countBookings(BookingRole.OWNER, userId, state);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Map<State, Long> getOwnerBookingSummary(Long userId) {
         userRepository.findById(userId).orElseThrow(
                 () -> new EntityNotFoundException(String.format("user id: %d was not found", userId)));
-        List<Booking> bookings;
-        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-        switch (queryStatus) {
-            case WAITING: return getBookingsWithConditionAndState(userId, Status.WAITING,
-                    bookingRepository::findByUserIdAndStatus, page);
-            case REJECTED: return getBookingsWithConditionAndState(userId, Status.REJECTED,
-                    bookingRepository::findByUserIdAndStatus, page);
-            case ALL: return getBookingsWithCondition(userId, bookingRepository::findByUserId, page);
-            case PAST: return getBookingsWithTimeCon(userId, bookingRepository::findByUserIdAndEndBefore, page);
-            case FUTURE: return getBookingsWithTimeCon(userId, bookingRepository::findByUserIdAndStartAfter, page);
-            case CURRENT: return getBookingsWithTimeCon(userId, bookingRepository::findByUserIdAndTimeCurrent, page);
-            default: return getBookingsWithCondition(userId, bookingRepository::findByUserId, page);
-        }
+        return bookingRepository.countBookingsByState(BookingQuery.builder()
+                .role(BookingRole.OWNER)
+                .userId(userId)
+                .now(LocalDateTime.now())
+                .build());
     }
 
     @Override
-    public List<BookingFullDto> getUserBookings(Long userId, int from, int size) {
+    @Transactional(readOnly = true)
+    public void exportBookings(Long userId, BookingRole role, Consumer<BookingFullDto> consumer) {
         userRepository.findById(userId).orElseThrow(
                 () -> new EntityNotFoundException(String.format("user id: %d was not found", userId)));
-        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-        return bookingRepository.findByUserIdOrderByStartDesc(userId, page).stream()
-                .map(x -> BookingMapper.toBookingDtoFull(x))
-                .sorted((a, b) -> b.getStart().compareTo(a.getStart()))
-                .collect(Collectors.toList());
+        try (Stream<BookingFullDto> bookings = bookingRepository.streamBookings(BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .size(EXPORT_FETCH_SIZE)
+                .build())) {
+            bookings.forEach(consumer);
+        }
     }
 
     @Override
+    @Transactional
     public void deleteBooking(Long bookingId) {
         Optional<Booking> booking = bookingRepository.findById(bookingId);
         if (booking.isEmpty()) {
             throw new EntityNotFoundException(String.format("booking id %d not found", bookingId));
         }
         bookingRepository.delete(booking.get());
+        bookingOverlapChecker.remove(booking.get());
+        bookingViewCache.invalidate(bookingId);
+        bookingEventRepository.save(toEvent(booking.get(), BookingEventType.DELETED));
     }
 
     @Override
+    @Transactional
     public BookingFullDto updateBooking(Long userId, Long bookingId, Boolean approved) {
-        Booking booking = bookingRepository.findById(bookingId).orElseThrow(
+        Booking booking = bookingRepository.findDetailedById(bookingId).orElseThrow(
                 () -> new EntityNotFoundException(String.format("booking id: %d was not found", bookingId)));
         userRepository.findById(userId).orElseThrow(
                 () -> new EntityNotFoundException(String.format("user id: %d was not found", userId)));
         if (!booking.getItem().getOwner().equals(userId)) {
             throw new UserMissMatchException(String.format("user id: %d is not owner", userId));
         }
+        Status previousStatus = booking.getStatus();
+        if (Status.CLOSED.contains(previousStatus)) {
+            throw new UnsupportedStatusException();
+        }
         if (approved.booleanValue()) {
             if (booking.getStatus().equals(Status.APPROVED)) {
                 throw new UnsupportedStatusException();
             }
+            if (!Status.isActive(booking.getStatus())) {
+                itemRepository.findByIdForUpdate(booking.getItem().getId());
+                if (bookingOverlapChecker.isOverlapping(booking.getItem().getId(), booking.getStart(), booking.getEnd())) {
+                    throw new TimeOverlapException("wrong bookings time period");
+                }
+            }
             booking.setStatus(Status.APPROVED);
         } else {
             booking.setStatus(Status.REJECTED);
         }
         bookingRepository.save(booking);
+        bookingOverlapChecker.update(booking, previousStatus);
+        bookingViewCache.invalidate(bookingId);
+        bookingEventRepository.save(toEvent(booking,
+                approved.booleanValue() ? BookingEventType.APPROVED : BookingEventType.REJECTED));
         return BookingMapper.toBookingDtoFull(booking);
     }
 
     @Override
+    @Transactional
+    public List<BookingApprovalResultDto> updateBookings(Long userId, List<Long> bookingIds, Boolean approved) {
+        userRepository.findById(userId).orElseThrow(
+                () -> new EntityNotFoundException(String.format("user id: %d was not found", userId)));
+        List<Long> ids = bookingIds.stream()
+                .distinct()
+                .collect(Collectors.toList());
+        Map<Long, BookingRefDto> owned = bookingRepository.findRefsForUpdateByIdInAndOwnerId(ids, userId).stream()
+                .collect(Collectors.toMap(BookingRefDto::getId, x -> x));
+        List<BookingRefDto> waiting = owned.values().stream()
+                .filter(x -> x.getStatus() == Status.WAITING)
+                .collect(Collectors.toList());
+        Status status = approved.booleanValue() ? Status.APPROVED : Status.REJECTED;
+        if (!waiting.isEmpty()) {
+            bookingRepository.updateStatusByIdIn(waiting.stream()
+                    .map(BookingRefDto::getId)
+                    .collect(Collectors.toList()), Status.WAITING, status);
+            BookingEventType type = approved.booleanValue() ? BookingEventType.APPROVED : BookingEventType.REJECTED;
+            bookingEventRepository.saveAll(waiting.stream()
+                    .map(x -> BookingEvent.builder()
+                            .bookingId(x.getId())
+                            .itemId(x.getItemId())
+                            .type(type)
+                            .created(LocalDateTime.now())
+                            .build())
+                    .collect(Collectors.toList()));
+            waiting.forEach(x -> bookingViewCache.invalidate(x.getId()));
+            if (!Status.isActive(status)) {
+                waiting.stream()
+                        .map(BookingRefDto::getItemId)
+                        .distinct()
+                        .forEach(bookingOverlapChecker::evict);
+            }
+        }
+        return ids.stream()
+                .map(x -> new BookingApprovalResultDto(x, toApprovalResult(owned.get(x), status)))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
     public void cancelBooking(Long userId, Long bookingId) {
         Optional<Booking> booking = bookingRepository.findById(bookingId);
         if (booking.isEmpty() || (!booking.get().getUser().getId().equals(userId))) {
@@ -166,56 +311,90 @@ public class BookingServiceImp implements BookingService {
         }
         booking.get().setStatus(Status.CANCELED);
         bookingRepository.save(booking.get());
+        bookingOverlapChecker.remove(booking.get());
+        bookingViewCache.invalidate(bookingId);
+        bookingEventRepository.save(toEvent(booking.get(), BookingEventType.CANCELED));
     }
 
-    private boolean checkTimeOverlap(Booking booking) {
-        Set<Booking> itemBookings = bookingRepository.findByItemIdOrderByStartDesc(booking.getItem().getId())
-                .stream().collect(Collectors.toSet());
-        Set<Booking> overlapedBookings = itemBookings.stream()
-                .filter(x -> isItOverlapping(x.getStart(), x.getEnd(), booking.getStart(), booking.getEnd()))
-                .limit(1)
-                .collect(Collectors.toSet());
-        return overlapedBookings.size() > 0;
+    private void checkBookingTime(BookingDto bookingDto) {
+        if (bookingDto.getStart().isAfter(bookingDto.getEnd()) || bookingDto.getStart().isEqual(bookingDto.getEnd()) ||
+                bookingDto.getStart().isBefore(LocalDateTime.now(ZoneId.of("UTC")))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "wrong booking attributes");
+        }
     }
 
-    private boolean isItOverlapping(LocalDateTime start1, LocalDateTime end1, LocalDateTime start2, LocalDateTime end2) {
-        if (start1.isBefore(start2) && end1.isAfter(start2)) {
-            return true;
+    private void checkBookingItem(Item item, Long userId) {
+        if (item.getOwner().equals(userId)) {
+            throw new UserMissMatchException("user is the owner");
         }
-        if (start2.isBefore(start1) && end2.isAfter(start1)) {
-            return true;
+        if (!item.getAvailable().booleanValue()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "item is unavailable");
         }
-        if (start1.isBefore(start2) && end1.isAfter(end2)) {
-            return true;
+    }
+
+    private ApprovalResult toApprovalResult(BookingRefDto booking, Status status) {
+        if (booking == null) {
+            return ApprovalResult.NOT_FOUND;
         }
-        if (start2.isBefore(start1) && end2.isAfter(end1)) {
-            return true;
+        if (booking.getStatus() != Status.WAITING) {
+            return ApprovalResult.WRONG_STATUS;
+        }
+        return (status == Status.APPROVED) ? ApprovalResult.APPROVED : ApprovalResult.REJECTED;
+    }
+
+    private BookingView loadBookingView(Long bookingId) {
+        long stamp = bookingViewCache.stamp();
+        BookingView view;
+        Optional<Booking> booking = bookingRepository.findDetailedById(bookingId);
+        if (booking.isPresent()) {
+            view = BookingMapper.toBookingView(BookingMapper.toBookingDtoFull(booking.get()),
+                    booking.get().getItem().getOwner());
+        } else {
+            BookingRecord archived = bookingRepository.findRecordById(bookingId)
+                    .orElseThrow(() -> new EntityNotFoundException("booking was not found"));
+            view = BookingMapper.toBookingView(BookingMapper.toBookingDtoFull(archived), archived.getItem().getOwner());
         }
-        if (start1.isEqual(start2) && end1.isEqual(end2)) {
-            return true;
+        bookingViewCache.put(view, stamp);
+        return view;
+    }
+
+    private void checkBatchTimeOverlap(List<Booking> bookings) {
+        Map<Long, List<Booking>> bookingsByItem = bookings.stream()
+                .filter(x -> Status.isActive(x.getStatus()))
+                .collect(Collectors.groupingBy(x -> x.getItem().getId()));
+        for (List<Booking> itemBookings : bookingsByItem.values()) {
+            itemBookings.sort(Comparator.comparing(Booking::getStart));
+            for (int i = 1; i < itemBookings.size(); i++) {
+                if (itemBookings.get(i).getStart().isBefore(itemBookings.get(i - 1).getEnd())) {
+                    throw new TimeOverlapException("wrong bookings time period");
+                }
+            }
         }
-        return false;
     }
 
-    private List<BookingFullDto> getBookingsWithCondition(Long userId, EntityBookings entityMethod, Pageable page) {
-        return entityMethod.getEntityBookingsOrderByStartDesc(userId, page).stream()
-                .map(x -> BookingMapper.toBookingDtoFull(x))
-                .sorted((a, b) -> b.getStart().compareTo(a.getStart()))
-                .collect(Collectors.toList());
+    private BookingEvent toEvent(Booking booking, BookingEventType type) {
+        return BookingEvent.builder()
+                .bookingId(booking.getId())
+                .itemId(booking.getItem().getId())
+                .type(type)
+                .created(LocalDateTime.now())
+                .build();
     }
 
-    private List<BookingFullDto> getBookingsWithTimeCon(Long userId, EntityBookingsWithOneTimeCond entityMethod, Pageable page) {
-        return entityMethod.getEntityBookingsWithTimeCon(userId, LocalDateTime.now(), page).stream()
-                .map(x -> BookingMapper.toBookingDtoFull(x))
-                .sorted((a, b) -> b.getStart().compareTo(a.getStart()))
-                .collect(Collectors.toList());
+    private List<BookingFullDto> findBookings(BookingQuery query) {
+        userRepository.findById(query.getUserId()).orElseThrow(
+                () -> new EntityNotFoundException(String.format("user id: %d was not found", query.getUserId())));
+        query.setNow(LocalDateTime.now());
+        return bookingRepository.findBookings(query);
     }
 
-    private List<BookingFullDto> getBookingsWithConditionAndState(Long userId, Status status,
-                                                                  EntityBookingsWithState entityMethod, Pageable page) {
-        return entityMethod.getEntityBookingsWithState(userId, status, page).stream()
-                .map(x -> BookingMapper.toBookingDtoFull(x))
-                .sorted((a, b) -> b.getStart().compareTo(a.getStart()))
-                .collect(Collectors.toList());
+    private long countBookings(BookingRole role, Long userId, State state) {
+        return approximateCounter.count(String.format("bookings:%s:%d:%s", role, userId, state),
+                () -> bookingRepository.countBookings(BookingQuery.builder()
+                        .role(role)
+                        .userId(userId)
+                        .state(state)
+                        .now(LocalDateTime.now())
+                        .build()));
     }
 }
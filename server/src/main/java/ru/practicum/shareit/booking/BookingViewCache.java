@@ -0,0 +1,140 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.BookingChange;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+@Component
+public class BookingViewCache {
+    private final Map<Long, CachedView> views;
+    private final Map<Long, Long> invalidations;
+    private final long ttlNanos;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+    private final Counter rejectedPuts;
+    private long generation;
+    private long invalidatedThrough;
+
+    public BookingViewCache(MeterRegistry meterRegistry,
+                            @Value("${shareit.booking.cache.max-size:10000}") int maxSize,
+                            @Value("${shareit.booking.cache.ttl:5m}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+        hits = meterRegistry.counter("shareit.booking.cache.gets", "result", "hit");
+        misses = meterRegistry.counter("shareit.booking.cache.gets", "result", "miss");
+        evictions = meterRegistry.counter("shareit.booking.cache.evictions");
+        rejectedPuts = meterRegistry.counter("shareit.booking.cache.rejected-puts");
+        this.views = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, CachedView> eldest) {
+                if (size() > maxSize) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.invalidations = new LinkedHashMap<>() {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                if (size() > maxSize) {
+                    invalidatedThrough = Math.max(invalidatedThrough, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+        Gauge.builder("shareit.booking.cache.size", this, BookingViewCache::size)
+                .register(meterRegistry);
+    }
+
+    public synchronized Optional<BookingView> get(Long bookingId) {
+        CachedView cachedView = views.get(bookingId);
+        if (cachedView == null || System.nanoTime() - cachedView.cachedAt >= ttlNanos) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(cachedView.view);
+    }
+
+    public synchronized long stamp() {
+        return generation;
+    }
+
+    public synchronized void put(BookingView view, long stamp) {
+        Long invalidated = invalidations.get(view.getId());
+        if (invalidatedThrough > stamp || (invalidated != null && invalidated > stamp)) {
+            rejectedPuts.increment();
+            return;
+        }
+        views.put(view.getId(), new CachedView(view, System.nanoTime()));
+    }
+
+    public void invalidate(Long bookingId) {
+        removeNowAndAfterCompletion(() -> remove(bookingId));
+    }
+
+    public void invalidateItem(Long itemId) {
+        removeNowAndAfterCompletion(() -> removeMatching(x -> itemId.equals(x.getItemId())));
+    }
+
+    public void invalidateBooker(Long userId) {
+        removeNowAndAfterCompletion(() -> removeMatching(x -> userId.equals(x.getBookerId())));
+    }
+
+    @EventListener
+    public void onBookingChange(BookingChange change) {
+        remove(change.getBookingId());
+    }
+
+    private synchronized void remove(Long bookingId) {
+        views.remove(bookingId);
+        invalidations.remove(bookingId);
+        invalidations.put(bookingId, ++generation);
+    }
+
+    private synchronized void removeMatching(Predicate<BookingView> affected) {
+        views.values().removeIf(x -> affected.test(x.view));
+        invalidatedThrough = ++generation;
+    }
+
+    private void removeNowAndAfterCompletion(Runnable removal) {
+        removal.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    removal.run();
+                }
+            });
+        }
+    }
+
+    private synchronized double size() {
+        return views.size();
+    }
+
+    private static class CachedView {
+        private final BookingView view;
+        private final long cachedAt;
+
+        CachedView(BookingView view, long cachedAt) {
+            this.view = view;
+            this.cachedAt = cachedAt;
+        }
+    }
+}
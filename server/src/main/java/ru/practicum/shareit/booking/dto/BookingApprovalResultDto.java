@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.ApprovalResult;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BookingApprovalResultDto {
+    private Long bookingId;
+    private ApprovalResult result;
+}
@@ -1,9 +1,12 @@
 package ru.practicum.shareit.booking.dto;
 
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRecord;
 import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
@@ -14,6 +17,7 @@ public class BookingMapper {
                 .end((bookingDto.getEnd() != null) ? bookingDto.getEnd() : null)
                 .item((item != null) ? item : null)
                 .user((booker != null) ? booker : null)
+                .ownerId((item != null) ? item.getOwner() : null)
                 .status((bookingDto.getStatus() != null) ? bookingDto.getStatus() : Status.WAITING)
                 .build();
     }
@@ -29,6 +33,47 @@ public class BookingMapper {
                 .build();
     }
 
+    public static BookingFullDto toBookingDtoFull(BookingRecord booking) {
+        return BookingFullDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(ItemMapper.toItemDto(booking.getItem()))
+                .booker(UserMapper.toUserDto(booking.getUser()))
+                .status(booking.getStatus())
+                .build();
+    }
+
+    public static BookingView toBookingView(BookingFullDto booking, Long ownerId) {
+        return BookingView.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .status(booking.getStatus())
+                .ownerId(ownerId)
+                .bookerId(booking.getBooker().getId())
+                .bookerName(booking.getBooker().getName())
+                .bookerEmail(booking.getBooker().getEmail())
+                .itemId(booking.getItem().getId())
+                .itemName(booking.getItem().getName())
+                .itemDescription(booking.getItem().getDescription())
+                .itemAvailable(booking.getItem().getAvailable())
+                .itemRequestId(booking.getItem().getRequestId())
+                .build();
+    }
+
+    public static BookingFullDto toBookingDtoFull(BookingView booking) {
+        return BookingFullDto.builder()
+                .id(booking.getId())
+                .start(booking.getStart())
+                .end(booking.getEnd())
+                .item(new ItemDto(booking.getItemId(), booking.getItemName(), booking.getItemDescription(),
+                        booking.getItemAvailable(), booking.getItemRequestId()))
+                .booker(new UserDto(booking.getBookerId(), booking.getBookerName(), booking.getBookerEmail()))
+                .status(booking.getStatus())
+                .build();
+    }
+
     public static BookingMinDto toMinBookingDto(Booking booking) {
         BookingMinDto minBookingDto = BookingMinDto.builder()
                 .id(booking.getId())
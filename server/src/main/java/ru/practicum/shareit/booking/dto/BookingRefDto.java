@@ -0,0 +1,15 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import ru.practicum.shareit.booking.model.Status;
+
+@Data
+@Builder
+@AllArgsConstructor
+public class BookingRefDto {
+    private Long id;
+    private Long itemId;
+    private Status status;
+}
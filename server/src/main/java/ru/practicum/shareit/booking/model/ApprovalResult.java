@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.model;
+
+public enum ApprovalResult {
+    APPROVED,
+    REJECTED,
+    NOT_FOUND,
+    WRONG_STATUS
+}
@@ -14,23 +14,34 @@ import java.time.LocalDateTime;
 @Entity
 @AllArgsConstructor
 @Table(name = "bookings")
+@NamedEntityGraph(name = "Booking.details", attributeNodes = {@NamedAttributeNode("item"), @NamedAttributeNode("user")})
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_id_seq")
+    @SequenceGenerator(name = "bookings_id_seq", sequenceName = "bookings_id_seq", allocationSize = 50)
     private Long id;
     @Column(name = "start_date", nullable = false)
     private LocalDateTime start;
     @Column(name = "end_date", nullable = false)
     private LocalDateTime end;
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "item_id")
     private Item item;
-    @ManyToOne(fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "booker_id")
     private User user;
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
     @Enumerated(EnumType.STRING)
     private Status status;
 
     public Booking() {
     }
+
+    @PrePersist
+    private void fillOwnerId() {
+        if (ownerId == null && item != null) {
+            ownerId = item.getOwner();
+        }
+    }
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class BookingChange {
+    private Long bookingId;
+    private Long itemId;
+    private BookingEventType type;
+}
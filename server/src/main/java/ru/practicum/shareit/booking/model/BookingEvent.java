@@ -0,0 +1,37 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@Entity
+@AllArgsConstructor
+@Table(name = "booking_events")
+public class BookingEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_events_id_seq")
+    @SequenceGenerator(name = "booking_events_id_seq", sequenceName = "booking_events_id_seq", allocationSize = 1)
+    private Long id;
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+    @Column(name = "item_id", nullable = false)
+    private Long itemId;
+    @Enumerated(EnumType.STRING)
+    private BookingEventType type;
+    @Column(name = "created", nullable = false)
+    private LocalDateTime created;
+    @Column(name = "published")
+    private LocalDateTime published;
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+    @Column(name = "last_error")
+    private String lastError;
+
+    public BookingEvent() {
+    }
+}
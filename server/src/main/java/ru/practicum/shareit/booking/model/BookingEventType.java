@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.model;
+
+public enum BookingEventType {
+    CREATED,
+    APPROVED,
+    REJECTED,
+    CANCELED,
+    EXPIRED,
+    DELETED
+}
@@ -0,0 +1,34 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Getter;
+import org.hibernate.annotations.Immutable;
+import org.hibernate.annotations.Synchronize;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+@Getter
+@Entity
+@Immutable
+@Synchronize({"bookings", "bookings_archive"})
+@Table(name = "booking_records")
+public class BookingRecord {
+    @Id
+    private Long id;
+    @Column(name = "start_date")
+    private LocalDateTime start;
+    @Column(name = "end_date")
+    private LocalDateTime end;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "item_id")
+    private Item item;
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "booker_id")
+    private User user;
+    @Column(name = "owner_id")
+    private Long ownerId;
+    @Enumerated(EnumType.STRING)
+    private Status status;
+}
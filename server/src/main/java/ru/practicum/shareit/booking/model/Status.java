@@ -1,8 +1,21 @@
 package ru.practicum.shareit.booking.model;
 
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
 public enum Status {
     WAITING,
     APPROVED,
     REJECTED,
-    CANCELED
+    CANCELED,
+    EXPIRED;
+
+    public static final Set<Status> INACTIVE = Collections.unmodifiableSet(EnumSet.of(REJECTED, CANCELED, EXPIRED));
+
+    public static final Set<Status> CLOSED = Collections.unmodifiableSet(EnumSet.of(CANCELED, EXPIRED));
+
+    public static boolean isActive(Status status) {
+        return !INACTIVE.contains(status);
+    }
 }
@@ -1,10 +1,16 @@
 package ru.practicum.shareit.comment;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.comment.model.Comment;
 
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
+    @EntityGraph("Comment.author")
     List<Comment> findByItemId(Long itemId);
+
+    @EntityGraph("Comment.author")
+    List<Comment> findByItemIdIn(Collection<Long> itemIds);
 }
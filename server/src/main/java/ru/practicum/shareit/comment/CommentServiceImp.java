@@ -3,11 +3,8 @@ package ru.practicum.shareit.comment;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
-import java.util.List;
-import java.util.stream.Collectors;
 
 import ru.practicum.shareit.booking.BookingRepository;
-import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentDtoFull;
@@ -30,11 +27,8 @@ public class CommentServiceImp implements CommentService {
 
     @Override
     public CommentDtoFull addItemComment(Long userId, CommentDto commentDto, Long itemId) {
-        List<Booking> bookings = bookingRepository.findUsersBookingForAnItemOrderByStartDesc(userId, itemId).stream()
-                .filter(x -> !x.getStatus().equals(Status.REJECTED))
-                .filter(x -> x.getStart().isBefore(LocalDateTime.now()))
-                .collect(Collectors.toList());
-        if (bookings.size() < 1) {
+        if (!bookingRepository.existsByUserIdAndItemIdAndStatusNotAndStartBefore(userId, itemId, Status.REJECTED,
+                LocalDateTime.now())) {
             throw new UnsupportedStatusException();
         }
         User user = userRepository.findById(userId).orElseThrow(
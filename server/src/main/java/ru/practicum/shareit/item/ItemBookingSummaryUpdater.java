@@ -0,0 +1,130 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummaryUpdater {
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+    private final BookingRepository bookingRepository;
+
+    public ItemBookingSummary get(Long itemId) {
+        LocalDateTime now = LocalDateTime.now();
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(itemId)
+                .orElseGet(() -> ItemBookingSummary.builder().itemId(itemId).build());
+        if (isStale(summary, now)) {
+            refresh(summary, now);
+        }
+        return summary;
+    }
+
+    public Map<Long, ItemBookingSummary> getAll(Collection<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryRepository.findAllById(itemIds).stream()
+                .collect(Collectors.toMap(ItemBookingSummary::getItemId, x -> x));
+        for (Long itemId : itemIds) {
+            ItemBookingSummary summary = summaries.computeIfAbsent(itemId,
+                    x -> ItemBookingSummary.builder().itemId(x).build());
+            if (isStale(summary, now)) {
+                refresh(summary, now);
+            }
+        }
+        return summaries;
+    }
+
+    @Transactional
+    public void add(Booking booking) {
+        if (!Status.isActive(booking.getStatus())) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        Long itemId = booking.getItem().getId();
+        ItemBookingSummary summary = itemBookingSummaryRepository.findByIdForUpdate(itemId)
+                .orElseGet(() -> ItemBookingSummary.builder().itemId(itemId).build());
+        if (isStale(summary, now)) {
+            refresh(summary, now);
+        } else if (booking.getStart().isBefore(now)) {
+            if (summary.getLastEnd() == null || booking.getEnd().isAfter(summary.getLastEnd())) {
+                setLast(summary, booking);
+            }
+        } else if (summary.getNextEnd() == null || booking.getEnd().isBefore(summary.getNextEnd())) {
+            setNext(summary, booking);
+        }
+        itemBookingSummaryRepository.save(summary);
+    }
+
+    @EventListener
+    @Transactional
+    public void onBookingEvent(BookingEvent event) {
+        switch (event.getType()) {
+            case CREATED:
+            case APPROVED:
+                bookingRepository.findById(event.getBookingId()).ifPresent(this::add);
+                break;
+            default:
+                remove(event.getItemId(), event.getBookingId());
+        }
+    }
+
+    @Transactional
+    public void evict(Long itemId) {
+        itemBookingSummaryRepository.findById(itemId).ifPresent(itemBookingSummaryRepository::delete);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item.booking-summary.refresh-interval:PT1M}",
+            initialDelayString = "${shareit.item.booking-summary.refresh-interval:PT1M}")
+    @Transactional
+    public void refreshStarted() {
+        LocalDateTime now = LocalDateTime.now();
+        itemBookingSummaryRepository.findByNextStartLessThanEqual(now).forEach(summary -> refresh(summary, now));
+    }
+
+    private void remove(Long itemId, Long bookingId) {
+        LocalDateTime now = LocalDateTime.now();
+        itemBookingSummaryRepository.findByIdForUpdate(itemId).ifPresent(summary -> {
+            if (bookingId.equals(summary.getLastBookingId()) || bookingId.equals(summary.getNextBookingId())
+                    || isStale(summary, now)) {
+                refresh(summary, now);
+                itemBookingSummaryRepository.save(summary);
+            }
+        });
+    }
+
+    private boolean isStale(ItemBookingSummary summary, LocalDateTime now) {
+        return summary.getNextStart() != null && !summary.getNextStart().isAfter(now);
+    }
+
+    private void refresh(ItemBookingSummary summary, LocalDateTime now) {
+        setLast(summary, bookingRepository.findFirstByItemIdAndStartBeforeAndStatusNotInOrderByEndDesc(
+                summary.getItemId(), now, Status.INACTIVE).orElse(null));
+        setNext(summary, bookingRepository.findFirstByItemIdAndStartAfterAndStatusNotInOrderByEndAsc(
+                summary.getItemId(), now, Status.INACTIVE).orElse(null));
+    }
+
+    private void setLast(ItemBookingSummary summary, Booking booking) {
+        summary.setLastBookingId(booking == null ? null : booking.getId());
+        summary.setLastBookerId(booking == null ? null : booking.getUser().getId());
+        summary.setLastEnd(booking == null ? null : booking.getEnd());
+    }
+
+    private void setNext(ItemBookingSummary summary, Booking booking) {
+        summary.setNextBookingId(booking == null ? null : booking.getId());
+        summary.setNextBookerId(booking == null ? null : booking.getUser().getId());
+        summary.setNextStart(booking == null ? null : booking.getStart());
+        summary.setNextEnd(booking == null ? null : booking.getEnd());
+    }
+}
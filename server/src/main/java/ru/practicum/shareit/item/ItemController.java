@@ -2,12 +2,17 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.booking.dto.TimeSlotDto;
 import ru.practicum.shareit.comment.CommentService;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentDtoFull;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
+import ru.practicum.shareit.util.TotalCountResponse;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Slf4j
@@ -45,11 +50,23 @@ public class ItemController {
         return itemService.getItem(userId, itemId);
     }
 
+    @GetMapping("/{itemId}/availability")
+    public List<TimeSlotDto> getItemAvailability(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                 @PathVariable Long itemId,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                 LocalDateTime from,
+                                                 @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+                                                 LocalDateTime to) {
+        return itemService.getItemAvailability(itemId, from, to);
+    }
+
     @GetMapping
-    public List<ItemWithBookingsDto> getUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
-                                                  @RequestParam int from,
-                                                  @RequestParam int size) {
-        return itemService.getUserItems(userId, from, size);
+    public ResponseEntity<List<ItemWithBookingsDto>> getUserItems(@RequestHeader("X-Sharer-User-Id") Long userId,
+                                                                  @RequestParam int from,
+                                                                  @RequestParam int size,
+                                                                  @RequestParam(defaultValue = "false") boolean total) {
+        return TotalCountResponse.of(itemService.getUserItems(userId, from, size), total,
+                () -> itemService.countUserItems(userId));
     }
 
     @GetMapping("/search")
@@ -59,6 +76,12 @@ public class ItemController {
         return itemService.searchItem(text, from, size);
     }
 
+    @GetMapping("/suggest")
+    public List<String> suggestItemNames(@RequestParam String prefix,
+                                         @RequestParam(defaultValue = "10") int limit) {
+        return itemService.suggestItemNames(prefix, limit);
+    }
+
     @DeleteMapping("/{itemId}")
     public void deleteItem(@RequestHeader("X-Sharer-User-Id") Long userId,
                            @PathVariable Long itemId) {
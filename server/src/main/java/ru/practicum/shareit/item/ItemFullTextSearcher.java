@@ -0,0 +1,33 @@
+package ru.practicum.shareit.item;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "shareit.item.search", havingValue = "fulltext")
+public class ItemFullTextSearcher implements ItemSearcher {
+    private final ItemRepository itemRepository;
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        List<String> tokens = ItemSearcher.tokenize(text);
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
+        return itemRepository.searchAvailableFullText(toPrefixQuery(tokens), page);
+    }
+
+    static String toPrefixQuery(List<String> tokens) {
+        return tokens.stream()
+                .map(x -> x + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+public interface ItemFuzzySearcher {
+    List<Item> search(String text, int from, int size);
+
+    default void add(Item item) {
+    }
+
+    default void remove(Long itemId) {
+    }
+}
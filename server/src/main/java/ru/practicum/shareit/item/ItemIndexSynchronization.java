@@ -0,0 +1,25 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.function.Consumer;
+
+class ItemIndexSynchronization {
+    static void reindexOnRollback(ItemRepository itemRepository, Long itemId, Consumer<Item> index,
+                                  Consumer<Long> unindex) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_ROLLED_BACK) {
+                        itemRepository.findById(itemId)
+                                .filter(x -> Boolean.TRUE.equals(x.getAvailable()))
+                                .ifPresentOrElse(index, () -> unindex.accept(itemId));
+                    }
+                }
+            });
+        }
+    }
+}
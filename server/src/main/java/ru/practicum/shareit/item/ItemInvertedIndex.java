@@ -0,0 +1,222 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemTextDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+@ConditionalOnProperty(name = "shareit.item.search", havingValue = "index")
+public class ItemInvertedIndex implements ItemSearcher {
+    private static final int NAME_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private final ItemRepository itemRepository;
+    private final ConcurrentNavigableMap<String, PostingList> postings = new ConcurrentSkipListMap<>();
+    private final Map<Long, IndexedItem> items = new ConcurrentHashMap<>();
+    private final Timer buildTimer;
+    private final Timer queryTimer;
+
+    public ItemInvertedIndex(ItemRepository itemRepository, MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        buildTimer = meterRegistry.timer("shareit.item.search.index.build");
+        queryTimer = meterRegistry.timer("shareit.item.search.query");
+        Gauge.builder("shareit.item.search.index.size", items, Map::size)
+                .register(meterRegistry);
+        Gauge.builder("shareit.item.search.index.terms", postings, Map::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        return queryTimer.record(() -> ItemSearcher.loadPage(itemRepository, rank(ItemSearcher.tokenize(text)), from,
+                size));
+    }
+
+    @Override
+    public void add(Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            index(item.getId(), item.getName(), item.getDescription());
+        } else {
+            unindex(item.getId());
+        }
+        reindexOnRollback(item.getId());
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        unindex(itemId);
+        reindexOnRollback(itemId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        buildTimer.record(() -> {
+            synchronized (this) {
+                postings.clear();
+                items.clear();
+                try (Stream<ItemTextDto> texts = itemRepository.streamAvailableItemTexts()) {
+                    texts.forEach(x -> index(x.getId(), x.getName(), x.getDescription()));
+                }
+            }
+        });
+    }
+
+    private List<Long> rank(List<String> tokens) {
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        long[] candidates = null;
+        for (String token : tokens) {
+            long[] matches = match(token);
+            candidates = (candidates == null) ? matches : intersect(candidates, matches);
+            if (candidates.length == 0) {
+                return List.of();
+            }
+        }
+        List<Hit> hits = new ArrayList<>(candidates.length);
+        for (long itemId : candidates) {
+            IndexedItem indexedItem = items.get(itemId);
+            if (indexedItem != null) {
+                hits.add(new Hit(itemId, indexedItem.score(tokens)));
+            }
+        }
+        hits.sort((a, b) -> (a.score != b.score) ? Integer.compare(b.score, a.score) : Long.compare(a.itemId,
+                b.itemId));
+        return hits.stream()
+                .map(x -> x.itemId)
+                .collect(Collectors.toList());
+    }
+
+    private long[] match(String prefix) {
+        long[] matches = new long[0];
+        for (PostingList postingList : postings.subMap(prefix, prefix + Character.MAX_VALUE).values()) {
+            matches = union(matches, postingList.toArray());
+        }
+        return matches;
+    }
+
+    private synchronized void index(Long itemId, String name, String description) {
+        IndexedItem indexedItem = new IndexedItem(ItemSearcher.tokenize(name), ItemSearcher.tokenize(description));
+        IndexedItem previous = items.put(itemId, indexedItem);
+        if (previous != null) {
+            removePostings(itemId, previous);
+        }
+        indexedItem.terms().forEach(term -> postings.computeIfAbsent(term, x -> new PostingList()).add(itemId));
+    }
+
+    private synchronized void unindex(Long itemId) {
+        IndexedItem previous = items.remove(itemId);
+        if (previous != null) {
+            removePostings(itemId, previous);
+        }
+    }
+
+    private void removePostings(Long itemId, IndexedItem indexedItem) {
+        indexedItem.terms().forEach(term -> {
+            PostingList postingList = postings.get(term);
+            if (postingList != null && postingList.remove(itemId)) {
+                postings.remove(term);
+            }
+        });
+    }
+
+    private void reindexOnRollback(Long itemId) {
+        ItemIndexSynchronization.reindexOnRollback(itemRepository, itemId,
+                x -> index(x.getId(), x.getName(), x.getDescription()), this::unindex);
+    }
+
+    private static long[] union(long[] left, long[] right) {
+        long[] result = new long[left.length + right.length];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < left.length || j < right.length) {
+            long next;
+            if (j == right.length || (i < left.length && left[i] < right[j])) {
+                next = left[i++];
+            } else if (i == left.length || right[j] < left[i]) {
+                next = right[j++];
+            } else {
+                next = left[i++];
+                j++;
+            }
+            result[size++] = next;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (right[j] < left[i]) {
+                j++;
+            } else {
+                result[size++] = left[i++];
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private static class IndexedItem {
+        private final List<String> nameTerms;
+        private final List<String> descriptionTerms;
+
+        IndexedItem(List<String> nameTerms, List<String> descriptionTerms) {
+            this.nameTerms = nameTerms;
+            this.descriptionTerms = descriptionTerms;
+        }
+
+        TreeSet<String> terms() {
+            TreeSet<String> terms = new TreeSet<>(nameTerms);
+            terms.addAll(descriptionTerms);
+            return terms;
+        }
+
+        int score(List<String> tokens) {
+            int score = 0;
+            for (String token : tokens) {
+                if (nameTerms.stream().anyMatch(x -> x.startsWith(token))) {
+                    score += NAME_WEIGHT;
+                }
+                if (descriptionTerms.stream().anyMatch(x -> x.startsWith(token))) {
+                    score += DESCRIPTION_WEIGHT;
+                }
+            }
+            return score;
+        }
+    }
+
+    private static class Hit {
+        private final long itemId;
+        private final int score;
+
+        Hit(long itemId, int score) {
+            this.itemId = itemId;
+            this.score = score;
+        }
+    }
+}
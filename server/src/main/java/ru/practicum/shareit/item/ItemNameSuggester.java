@@ -0,0 +1,132 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemTextDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Component
+public class ItemNameSuggester {
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private final ItemRepository itemRepository;
+    private final ConcurrentNavigableMap<String, NameEntry> names = new ConcurrentSkipListMap<>();
+    private final Map<Long, String> itemNames = new ConcurrentHashMap<>();
+    private final Timer buildTimer;
+    private final Timer queryTimer;
+
+    public ItemNameSuggester(ItemRepository itemRepository, MeterRegistry meterRegistry) {
+        this.itemRepository = itemRepository;
+        buildTimer = meterRegistry.timer("shareit.item.suggest.build");
+        queryTimer = meterRegistry.timer("shareit.item.suggest.query");
+        Gauge.builder("shareit.item.suggest.size", names, Map::size)
+                .register(meterRegistry);
+    }
+
+    public List<String> suggest(String prefix, int limit) {
+        return queryTimer.record(() -> {
+            String key = normalize(prefix);
+            if (key.isEmpty()) {
+                return List.of();
+            }
+            return names.subMap(key, key + Character.MAX_VALUE).values().stream()
+                    .limit(limit)
+                    .map(x -> x.name)
+                    .collect(Collectors.toList());
+        });
+    }
+
+    public void add(Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            index(item.getId(), item.getName());
+        } else {
+            unindex(item.getId());
+        }
+        reindexOnRollback(item.getId());
+    }
+
+    public void remove(Long itemId) {
+        unindex(itemId);
+        reindexOnRollback(itemId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        buildTimer.record(() -> {
+            synchronized (this) {
+                names.clear();
+                itemNames.clear();
+                try (Stream<ItemTextDto> texts = itemRepository.streamAvailableItemTexts()) {
+                    texts.forEach(x -> index(x.getId(), x.getName()));
+                }
+            }
+        });
+    }
+
+    private synchronized void index(Long itemId, String name) {
+        String key = normalize(name);
+        if (key.isEmpty()) {
+            unindex(itemId);
+            return;
+        }
+        String previous = itemNames.put(itemId, key);
+        if (key.equals(previous)) {
+            return;
+        }
+        if (previous != null) {
+            release(previous);
+        }
+        String displayName = WHITESPACE.matcher(name.trim()).replaceAll(" ");
+        names.compute(key, (x, entry) -> (entry == null) ? new NameEntry(displayName, 1)
+                : new NameEntry(entry.name, entry.count + 1));
+    }
+
+    private synchronized void unindex(Long itemId) {
+        String previous = itemNames.remove(itemId);
+        if (previous != null) {
+            release(previous);
+        }
+    }
+
+    private void release(String key) {
+        names.computeIfPresent(key, (x, entry) -> (entry.count == 1) ? null
+                : new NameEntry(entry.name, entry.count - 1));
+    }
+
+    private void reindexOnRollback(Long itemId) {
+        ItemIndexSynchronization.reindexOnRollback(itemRepository, itemId, x -> index(x.getId(), x.getName()),
+                this::unindex);
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return WHITESPACE.matcher(text.trim().toLowerCase(Locale.ROOT)).replaceAll(" ");
+    }
+
+    private static class NameEntry {
+        private final String name;
+        private final int count;
+
+        NameEntry(String name, int count) {
+            this.name = name;
+            this.count = count;
+        }
+    }
+}
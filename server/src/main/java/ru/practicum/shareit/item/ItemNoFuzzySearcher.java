@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+
+@Component
+@ConditionalOnProperty(name = "shareit.item.fuzzy-search.enabled", havingValue = "false", matchIfMissing = true)
+public class ItemNoFuzzySearcher implements ItemFuzzySearcher {
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        return List.of();
+    }
+}
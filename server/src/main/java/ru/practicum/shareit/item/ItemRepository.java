@@ -1,17 +1,50 @@
 package ru.practicum.shareit.item;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.item.dto.ItemTextDto;
 import ru.practicum.shareit.item.model.Item;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
 
-    Page<Item> findByOwnerOrderById(Long ownerId, Pageable page);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item as i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(Long itemId);
 
-    List<Item> findByDescriptionContainingIgnoreCase(String description, Pageable page);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item as i where i.id in ?1 order by i.id")
+    List<Item> findAllByIdForUpdate(Collection<Long> itemIds);
+
+    Slice<Item> findByOwnerOrderById(Long ownerId, Pageable page);
+
+    long countByOwner(Long ownerId);
+
+    @Query("select i from Item as i where i.available = true " +
+            "and (lower(i.name) like concat('%', ?1, '%') escape '\\' " +
+            "or lower(i.description) like concat('%', ?1, '%') escape '\\') " +
+            "order by i.id")
+    List<Item> searchAvailable(String text, Pageable page);
+
+    @Query(value = "select i.* from items as i, to_tsquery('simple', ?1) as q " +
+            "where i.available and i.search_vector @@ q " +
+            "order by ts_rank(i.search_vector, q) desc, i.id", nativeQuery = true)
+    List<Item> searchAvailableFullText(String query, Pageable page);
 
     List<Item> findByRequestId(Long requestId);
+
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query("select new ru.practicum.shareit.item.dto.ItemTextDto(i.id, i.name, i.description) from Item as i " +
+            "where i.available = true")
+    Stream<ItemTextDto> streamAvailableItemTexts();
 }
@@ -0,0 +1,48 @@
+package ru.practicum.shareit.item;
+
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+public interface ItemSearcher {
+    Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    List<Item> search(String text, int from, int size);
+
+    default void add(Item item) {
+    }
+
+    default void remove(Long itemId) {
+    }
+
+    static List<Item> loadPage(ItemRepository itemRepository, List<Long> rankedIds, int from, int size) {
+        int offset = (from > 0 ? from / size : 0) * size;
+        if (offset >= rankedIds.size()) {
+            return List.of();
+        }
+        List<Long> pageIds = rankedIds.subList(offset, Math.min(offset + size, rankedIds.size()));
+        Map<Long, Item> found = itemRepository.findAllById(pageIds).stream()
+                .filter(x -> Boolean.TRUE.equals(x.getAvailable()))
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return pageIds.stream()
+                .map(found::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return List.of();
+        }
+        return TOKEN_SEPARATOR.splitAsStream(text.toLowerCase(Locale.ROOT))
+                .filter(x -> !x.isEmpty())
+                .distinct()
+                .collect(Collectors.toList());
+    }
+}
@@ -1,8 +1,10 @@
 package ru.practicum.shareit.item;
 
+import ru.practicum.shareit.booking.dto.TimeSlotDto;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -14,7 +16,13 @@ public interface ItemService {
 
     List<ItemWithBookingsDto> getUserItems(Long userId, int from, int size);
 
+    long countUserItems(Long userId);
+
+    List<TimeSlotDto> getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to);
+
     List<ItemDto> searchItem(String searchText, int from, int size);
 
+    List<String> suggestItemNames(String prefix, int limit);
+
     void deleteItem(Long itemId);
 }
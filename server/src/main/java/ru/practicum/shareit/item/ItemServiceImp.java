@@ -2,10 +2,19 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.BookingOverlapChecker;
+import ru.practicum.shareit.booking.BookingEventRepository;
 import ru.practicum.shareit.booking.BookingRepository;
-import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.BookingViewCache;
+import ru.practicum.shareit.booking.dto.BookingMinDto;
+import ru.practicum.shareit.booking.dto.TimeSlotDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventType;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.comment.CommentRepository;
 import ru.practicum.shareit.comment.dto.CommentMapper;
@@ -15,14 +24,17 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.ApproximateCounter;
 
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -32,6 +44,14 @@ public class ItemServiceImp implements ItemService {
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final BookingOverlapChecker bookingOverlapChecker;
+    private final ApproximateCounter approximateCounter;
+    private final ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+    private final ItemSearcher itemSearcher;
+    private final ItemFuzzySearcher itemFuzzySearcher;
+    private final ItemNameSuggester itemNameSuggester;
+    private final BookingViewCache bookingViewCache;
+    private final BookingEventRepository bookingEventRepository;
 
     @Override
     public ItemDto addItem(Long userId, ItemDto itemDto) {
@@ -39,7 +59,11 @@ public class ItemServiceImp implements ItemService {
                 () -> new EntityNotFoundException(String.format("user id: %d was not found", userId)));
         Item item = ItemMapper.toItem(userId, itemDto);
         updateRequest(itemDto, item);
-        ItemDto newItemDto = ItemMapper.toItemDto(itemRepository.save(item));
+        Item savedItem = itemRepository.save(item);
+        itemSearcher.add(savedItem);
+        itemFuzzySearcher.add(savedItem);
+        itemNameSuggester.add(savedItem);
+        ItemDto newItemDto = ItemMapper.toItemDto(savedItem);
         return newItemDto;
     }
 
@@ -56,53 +80,131 @@ public class ItemServiceImp implements ItemService {
         }
         Item updatedItem = ItemMapper.updateItemWithItem(oldItem, item);
         itemRepository.save(updatedItem);
+        bookingViewCache.invalidateItem(itemId);
+        itemSearcher.add(updatedItem);
+        itemFuzzySearcher.add(updatedItem);
+        itemNameSuggester.add(updatedItem);
         return ItemMapper.toItemDto(updatedItem);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public ItemWithBookingsDto getItem(Long userId, Long itemId) {
         Item item = itemRepository.findById(itemId).orElseThrow(
                 () -> new EntityNotFoundException(String.format("item id: %d was not found", itemId)));
         if (userId.equals(item.getOwner())) {
-            return itemWithBookingsDtoUpdater(item);
+            return itemWithBookingsDtoUpdater(item, itemBookingSummaryUpdater.get(itemId),
+                    commentRepository.findByItemId(itemId));
         } else {
             ItemWithBookingsDto itemWithBookingsDto = ItemMapper.toItemWithBookingsDto(item);
-            updateComments(itemWithBookingsDto, itemId);
+            setComments(itemWithBookingsDto, commentRepository.findByItemId(itemId));
             return itemWithBookingsDto;
         }
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<ItemWithBookingsDto> getUserItems(Long userId, int from, int size) {
         userRepository.findById(userId);
         PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-        return itemRepository.findByOwnerOrderById(userId, page).stream()
-                .map(x -> itemWithBookingsDtoUpdater(x))
+        List<Item> items = itemRepository.findByOwnerOrderById(userId, page).getContent();
+        if (items.isEmpty()) {
+            return List.of();
+        }
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Map<Long, ItemBookingSummary> summaries = itemBookingSummaryUpdater.getAll(itemIds);
+        Map<Long, List<Comment>> comments = commentRepository.findByItemIdIn(itemIds).stream()
+                .collect(Collectors.groupingBy(x -> x.getItem().getId()));
+        return items.stream()
+                .map(x -> itemWithBookingsDtoUpdater(x, summaries.get(x.getId()),
+                        comments.getOrDefault(x.getId(), List.of())))
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public long countUserItems(Long userId) {
+        return approximateCounter.count(String.format("items:%d", userId), () -> itemRepository.countByOwner(userId));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TimeSlotDto> getItemAvailability(Long itemId, LocalDateTime from, LocalDateTime to) {
+        if (!from.isBefore(to)) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "wrong availability period");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new EntityNotFoundException(String.format("item id: %d was not found", itemId));
+        }
+        List<TimeSlotDto> freeSlots = new ArrayList<>();
+        LocalDateTime cursor = from;
+        try (Stream<TimeSlotDto> busySlots =
+                     bookingRepository.streamItemBookingSlots(itemId, from, to, Status.INACTIVE)) {
+            Iterator<TimeSlotDto> iterator = busySlots.iterator();
+            while (iterator.hasNext()) {
+                TimeSlotDto busySlot = iterator.next();
+                if (busySlot.getStart().isAfter(cursor)) {
+                    freeSlots.add(new TimeSlotDto(cursor, busySlot.getStart()));
+                }
+                if (busySlot.getEnd().isAfter(cursor)) {
+                    cursor = busySlot.getEnd();
+                }
+            }
+        }
+        if (cursor.isBefore(to)) {
+            freeSlots.add(new TimeSlotDto(cursor, to));
+        }
+        return freeSlots;
+    }
+
     @Override
     public List<ItemDto> searchItem(String searchText, int from, int size) {
         if (searchText.length() < 1) {
             return List.of();
         }
-        PageRequest page = PageRequest.of(from > 0 ? from / size : 0, size);
-        List<Item> items = itemRepository.findByDescriptionContainingIgnoreCase(searchText.toLowerCase(), page).stream()
-                .filter(x -> x.getAvailable().equals(Boolean.TRUE))
-                .sorted((a, b) -> a.getId().compareTo(b.getId()))
-                .collect(Collectors.toList());
+        List<Item> items = itemSearcher.search(searchText, from, size);
+        if (items.isEmpty() && (from == 0 || itemSearcher.search(searchText, 0, 1).isEmpty())) {
+            items = itemFuzzySearcher.search(searchText, from, size);
+        }
         return ItemMapper.allItemsToItemsDto(items);
     }
 
     @Override
+    public List<String> suggestItemNames(String prefix, int limit) {
+        if (limit < 1) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "wrong suggestion limit");
+        }
+        return itemNameSuggester.suggest(prefix, limit);
+    }
+
+    @Override
+    @Transactional
     public void deleteItem(Long itemId) {
+        List<Long> bookingIds = bookingRepository.findRecordIdsByItemId(itemId);
         List<Booking> bookings = bookingRepository.findByItemIdOrderByStartDesc(itemId);
         bookingRepository.deleteAllInBatch(bookings);
+        bookingRepository.deleteArchivedByItemId(itemId);
         Optional<Item> item = itemRepository.findById(itemId);
         if (item.isEmpty()) {
             throw new EntityNotFoundException(String.format("item id %d not found", itemId));
         }
+        itemBookingSummaryUpdater.evict(itemId);
         itemRepository.delete(item.get());
+        bookingIds.forEach(bookingViewCache::invalidate);
+        LocalDateTime now = LocalDateTime.now();
+        bookingEventRepository.saveAll(bookingIds.stream()
+                .map(x -> BookingEvent.builder()
+                        .bookingId(x)
+                        .itemId(itemId)
+                        .type(BookingEventType.DELETED)
+                        .created(now)
+                        .build())
+                .collect(Collectors.toList()));
+        bookingOverlapChecker.evict(itemId);
+        itemSearcher.remove(itemId);
+        itemFuzzySearcher.remove(itemId);
+        itemNameSuggester.remove(itemId);
     }
 
     private boolean validateOwner(Long userId, Item item) {
@@ -113,32 +215,26 @@ public class ItemServiceImp implements ItemService {
         return !oldItem.get().getOwner().equals(userId);
     }
 
-    private ItemWithBookingsDto itemWithBookingsDtoUpdater(Item item) {
+    private ItemWithBookingsDto itemWithBookingsDtoUpdater(Item item, ItemBookingSummary summary,
+                                                           List<Comment> comments) {
         ItemWithBookingsDto itemWithBookingsDto = ItemMapper.toItemWithBookingsDto(item);
-        List<Booking> bookings = bookingRepository.findByItemIdOrderByStartDesc(item.getId()).stream()
-                .filter(x -> !x.getStatus().equals(Status.REJECTED))
-                .sorted((a, b) -> a.getStart().compareTo(b.getStart()))
-                .collect(Collectors.toList());
-        Booking lastBooking = bookings.stream()
-                .filter(x -> x.getStart().isBefore(LocalDateTime.now()))
-                .max(Comparator.comparing(Booking::getEnd))
-                .orElse(null);
-        if (lastBooking != null) {
-            itemWithBookingsDto.setLastBooking(BookingMapper.toMinBookingDto(lastBooking));
+        if (summary.getLastBookingId() != null) {
+            itemWithBookingsDto.setLastBooking(BookingMinDto.builder()
+                    .id(summary.getLastBookingId())
+                    .bookerId(summary.getLastBookerId())
+                    .build());
         }
-        Booking nextBooking = bookings.stream()
-                .filter(x -> x.getStart().isAfter(LocalDateTime.now()))
-                .min(Comparator.comparing(Booking::getEnd))
-                .orElse(null);
-        if (nextBooking != null) {
-            itemWithBookingsDto.setNextBooking(BookingMapper.toMinBookingDto(nextBooking));
+        if (summary.getNextBookingId() != null) {
+            itemWithBookingsDto.setNextBooking(BookingMinDto.builder()
+                    .id(summary.getNextBookingId())
+                    .bookerId(summary.getNextBookerId())
+                    .build());
         }
-        updateComments(itemWithBookingsDto, item.getId());
+        setComments(itemWithBookingsDto, comments);
         return itemWithBookingsDto;
     }
 
-    private void updateComments(ItemWithBookingsDto itemWithBookingsDto, Long itemId) {
-        List<Comment> comments = commentRepository.findByItemId(itemId);
+    private void setComments(ItemWithBookingsDto itemWithBookingsDto, List<Comment> comments) {
         itemWithBookingsDto.setComments(comments.stream()
                 .map(x -> CommentMapper.toCommentDtoFull(x, x.getAuthor().getName()))
                 .sorted((a, b) -> a.getId().compareTo(b.getId()))
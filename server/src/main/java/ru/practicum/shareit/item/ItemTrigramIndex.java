@@ -0,0 +1,277 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemTextDto;
+import ru.practicum.shareit.item.model.Item;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@Component
+@ConditionalOnProperty(name = "shareit.item.fuzzy-search.enabled", havingValue = "true")
+public class ItemTrigramIndex implements ItemFuzzySearcher {
+    private static final double DESCRIPTION_WEIGHT = 0.5;
+    private static final String[] CYRILLIC_TO_LATIN = {"a", "b", "v", "g", "d", "e", "zh", "z", "i", "i", "k", "l",
+            "m", "n", "o", "p", "r", "s", "t", "u", "f", "h", "ts", "ch", "sh", "sch", "", "y", "", "e", "yu", "ya"};
+    private final ItemRepository itemRepository;
+    private final double threshold;
+    private final int maxCandidates;
+    private final Map<Integer, PostingList> namePostings = new ConcurrentHashMap<>();
+    private final Map<Integer, PostingList> descriptionPostings = new ConcurrentHashMap<>();
+    private final Map<Long, IndexedItem> items = new ConcurrentHashMap<>();
+    private final Timer buildTimer;
+    private final Timer queryTimer;
+    private final Counter truncatedQueries;
+
+    public ItemTrigramIndex(ItemRepository itemRepository, MeterRegistry meterRegistry,
+                            @Value("${shareit.item.fuzzy-search.threshold:0.3}") double threshold,
+                            @Value("${shareit.item.fuzzy-search.max-candidates:5000}") int maxCandidates) {
+        this.itemRepository = itemRepository;
+        this.threshold = threshold;
+        this.maxCandidates = maxCandidates;
+        buildTimer = meterRegistry.timer("shareit.item.search.trigram.build");
+        queryTimer = meterRegistry.timer("shareit.item.search.trigram.query");
+        truncatedQueries = meterRegistry.counter("shareit.item.search.trigram.truncated");
+        Gauge.builder("shareit.item.search.trigram.size", items, Map::size)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<Item> search(String text, int from, int size) {
+        return queryTimer.record(() -> ItemSearcher.loadPage(itemRepository, rank(trigrams(text)), from, size));
+    }
+
+    @Override
+    public void add(Item item) {
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            index(item.getId(), item.getName(), item.getDescription());
+        } else {
+            unindex(item.getId());
+        }
+        reindexOnRollback(item.getId());
+    }
+
+    @Override
+    public void remove(Long itemId) {
+        unindex(itemId);
+        reindexOnRollback(itemId);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        buildTimer.record(() -> {
+            synchronized (this) {
+                namePostings.clear();
+                descriptionPostings.clear();
+                items.clear();
+                try (Stream<ItemTextDto> texts = itemRepository.streamAvailableItemTexts()) {
+                    texts.forEach(x -> index(x.getId(), x.getName(), x.getDescription()));
+                }
+            }
+        });
+    }
+
+    private List<Long> rank(int[] query) {
+        if (query.length == 0) {
+            return List.of();
+        }
+        Map<Long, Double> scores = new HashMap<>();
+        int minNameShared = (int) Math.ceil(threshold * query.length);
+        forEachShared(namePostings, query, minNameShared, x -> x.nameTrigrams, (indexedItem, itemId, shared) -> {
+            double containment = (double) shared / query.length;
+            double jaccard = (double) shared / (query.length + indexedItem.nameTrigrams.length - shared);
+            scores.merge(itemId, (containment + jaccard) / 2, Math::max);
+        });
+        int minDescriptionShared = (int) Math.ceil(threshold / DESCRIPTION_WEIGHT * query.length);
+        forEachShared(descriptionPostings, query, minDescriptionShared, x -> x.descriptionTrigrams,
+                (indexedItem, itemId, shared) -> scores.merge(itemId, DESCRIPTION_WEIGHT * shared / query.length,
+                        Math::max));
+        return scores.entrySet().stream()
+                .filter(x -> x.getValue() >= threshold)
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed()
+                        .thenComparing(Map.Entry.<Long, Double>comparingByKey()))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private void forEachShared(Map<Integer, PostingList> postings, int[] query, int minShared,
+                               Function<IndexedItem, int[]> trigramsOf, SharedConsumer consumer) {
+        int required = Math.max(minShared, 1);
+        if (required > query.length) {
+            return;
+        }
+        List<PostingList> lists = new ArrayList<>(query.length);
+        for (int trigram : query) {
+            PostingList postingList = postings.get(trigram);
+            if (postingList != null) {
+                lists.add(postingList);
+            }
+        }
+        lists.sort(Comparator.comparingInt(PostingList::size));
+        int probed = query.length - required + 1 - (query.length - lists.size());
+        if (probed <= 0) {
+            return;
+        }
+        Set<Long> candidates = new LinkedHashSet<>();
+        boolean truncated = false;
+        for (PostingList postingList : lists.subList(0, probed)) {
+            if (candidates.size() >= maxCandidates) {
+                truncated = true;
+                break;
+            }
+            long[] head = postingList.head(maxCandidates - candidates.size());
+            for (long itemId : head) {
+                candidates.add(itemId);
+            }
+            truncated = head.length < postingList.size();
+        }
+        if (truncated) {
+            truncatedQueries.increment();
+        }
+        for (Long itemId : candidates) {
+            IndexedItem indexedItem = items.get(itemId);
+            if (indexedItem != null) {
+                int shared = countShared(query, trigramsOf.apply(indexedItem));
+                if (shared >= required) {
+                    consumer.accept(indexedItem, itemId, shared);
+                }
+            }
+        }
+    }
+
+    private static int countShared(int[] query, int[] trigrams) {
+        int shared = 0;
+        int i = 0;
+        int j = 0;
+        while (i < query.length && j < trigrams.length) {
+            if (query[i] == trigrams[j]) {
+                shared++;
+                i++;
+                j++;
+            } else if (query[i] < trigrams[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return shared;
+    }
+
+    private synchronized void index(Long itemId, String name, String description) {
+        IndexedItem indexedItem = new IndexedItem(trigrams(name), trigrams(description));
+        IndexedItem previous = items.put(itemId, indexedItem);
+        if (previous != null) {
+            removePostings(itemId, previous);
+        }
+        for (int trigram : indexedItem.nameTrigrams) {
+            namePostings.computeIfAbsent(trigram, x -> new PostingList()).add(itemId);
+        }
+        for (int trigram : indexedItem.descriptionTrigrams) {
+            descriptionPostings.computeIfAbsent(trigram, x -> new PostingList()).add(itemId);
+        }
+    }
+
+    private synchronized void unindex(Long itemId) {
+        IndexedItem previous = items.remove(itemId);
+        if (previous != null) {
+            removePostings(itemId, previous);
+        }
+    }
+
+    private void removePostings(Long itemId, IndexedItem indexedItem) {
+        removePostings(namePostings, itemId, indexedItem.nameTrigrams);
+        removePostings(descriptionPostings, itemId, indexedItem.descriptionTrigrams);
+    }
+
+    private void removePostings(Map<Integer, PostingList> postings, Long itemId, int[] trigrams) {
+        for (int trigram : trigrams) {
+            PostingList postingList = postings.get(trigram);
+            if (postingList != null && postingList.remove(itemId)) {
+                postings.remove(trigram);
+            }
+        }
+    }
+
+    private void reindexOnRollback(Long itemId) {
+        ItemIndexSynchronization.reindexOnRollback(itemRepository, itemId,
+                x -> index(x.getId(), x.getName(), x.getDescription()), this::unindex);
+    }
+
+    static int[] trigrams(String text) {
+        return ItemSearcher.tokenize(text).stream()
+                .map(ItemTrigramIndex::transliterate)
+                .filter(x -> !x.isEmpty())
+                .flatMapToInt(ItemTrigramIndex::wordTrigrams)
+                .distinct()
+                .sorted()
+                .toArray();
+    }
+
+    static String transliterate(String word) {
+        StringBuilder latin = new StringBuilder(word.length());
+        for (char c : word.toCharArray()) {
+            if (c >= '\u0430' && c <= '\u044f') {
+                latin.append(CYRILLIC_TO_LATIN[c - '\u0430']);
+            } else if (c == '\u0451') {
+                latin.append('e');
+            } else {
+                latin.append(c);
+            }
+        }
+        return latin.toString();
+    }
+
+    private static IntStream wordTrigrams(String word) {
+        String padded = "  " + word + " ";
+        return IntStream.range(0, padded.length() - 2)
+                .map(i -> code(padded.charAt(i)) << 20 | code(padded.charAt(i + 1)) << 10
+                        | code(padded.charAt(i + 2)));
+    }
+
+    private static int code(char c) {
+        if (c == ' ') {
+            return 0;
+        }
+        if (c >= 'a' && c <= 'z') {
+            return c - 'a' + 1;
+        }
+        if (c >= '0' && c <= '9') {
+            return c - '0' + 27;
+        }
+        return 37 + c % 987;
+    }
+
+    private interface SharedConsumer {
+        void accept(IndexedItem indexedItem, Long itemId, int shared);
+    }
+
+    private static class IndexedItem {
+        private final int[] nameTrigrams;
+        private final int[] descriptionTrigrams;
+
+        IndexedItem(int[] nameTrigrams, int[] descriptionTrigrams) {
+            this.nameTrigrams = nameTrigrams;
+            this.descriptionTrigrams = descriptionTrigrams;
+        }
+    }
+}
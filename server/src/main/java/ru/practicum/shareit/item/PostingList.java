@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item;
+
+import java.util.Arrays;
+
+class PostingList {
+    private long[] itemIds = new long[4];
+    private int size;
+
+    synchronized void add(long itemId) {
+        int position = Arrays.binarySearch(itemIds, 0, size, itemId);
+        if (position >= 0) {
+            return;
+        }
+        position = -position - 1;
+        if (size == itemIds.length) {
+            itemIds = Arrays.copyOf(itemIds, size * 2);
+        }
+        System.arraycopy(itemIds, position, itemIds, position + 1, size - position);
+        itemIds[position] = itemId;
+        size++;
+    }
+
+    synchronized boolean remove(long itemId) {
+        int position = Arrays.binarySearch(itemIds, 0, size, itemId);
+        if (position >= 0) {
+            System.arraycopy(itemIds, position + 1, itemIds, position, size - position - 1);
+            size--;
+        }
+        return size == 0;
+    }
+
+    synchronized long[] toArray() {
+        return Arrays.copyOf(itemIds, size);
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    synchronized long[] head(int limit) {
+        return Arrays.copyOf(itemIds, Math.min(limit, size));
+    }
+}
@@ -2,8 +2,10 @@ package ru.practicum.shareit.request;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.util.TotalCountResponse;
 import java.util.List;
 
 @Slf4j
@@ -38,10 +40,12 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getAllRequests(@RequestHeader("X-Sharer-User-Id") long userId,
-                                               @RequestParam Integer from,
-                                               @RequestParam Integer size) {
-        return itemRequestService.getAllItemRequests(userId, from, size);
+    public ResponseEntity<List<ItemRequestDto>> getAllRequests(@RequestHeader("X-Sharer-User-Id") long userId,
+                                                               @RequestParam Integer from,
+                                                               @RequestParam Integer size,
+                                                               @RequestParam(defaultValue = "false") boolean total) {
+        return TotalCountResponse.of(itemRequestService.getAllItemRequests(userId, from, size), total,
+                () -> itemRequestService.countAllItemRequests(userId));
     }
 
     @DeleteMapping("/{itemRequestId}")
@@ -2,7 +2,7 @@ package ru.practicum.shareit.request;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 import ru.practicum.shareit.request.model.ItemRequest;
-import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
@@ -11,7 +11,7 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
 
     List<ItemRequest> findByRequestorIdOrderByCreatedDesc(Long requestorId);
 
-    Page<ItemRequest> findAll(Pageable page);
+    Slice<ItemRequest> findByRequestorIdNotOrderByCreatedDesc(Long authorId, Pageable page);
 
-    Page<ItemRequest> findByRequestorIdNotOrderByCreatedDesc(Long authorId, Pageable page);
+    long countByRequestorIdNot(Long authorId);
 }
@@ -15,4 +15,6 @@ public interface ItemRequestService {
     List<ItemRequestDto> getUserItemRequests(Long userId);
 
     List<ItemRequestDto> getAllItemRequests(Long userId, int from, int size);
+
+    long countAllItemRequests(Long userId);
 }
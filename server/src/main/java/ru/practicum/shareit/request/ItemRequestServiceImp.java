@@ -11,6 +11,7 @@ import ru.practicum.shareit.request.dto.ItemRequestMapper;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.ApproximateCounter;
 import org.springframework.data.domain.PageRequest;
 
 import java.util.List;
@@ -23,6 +24,7 @@ public class ItemRequestServiceImp implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
     private final UserRepository userRepository;
     private final ItemRepository itemRepository;
+    private final ApproximateCounter approximateCounter;
 
     @Override
     public ItemRequestDto addItemRequest(Long userId, ItemRequestDto itemRequestDto) {
@@ -93,6 +95,12 @@ public class ItemRequestServiceImp implements ItemRequestService {
                 .getContent();
     }
 
+    @Override
+    public long countAllItemRequests(Long userId) {
+        return approximateCounter.count(String.format("requests:%d", userId),
+                () -> itemRequestRepository.countByRequestorIdNot(userId));
+    }
+
     private List<ItemDto> getItemsForRequest(Long requestId) {
         return itemRepository.findByRequestId(requestId).stream()
                 .map(x -> ItemMapper.toItemDto(x))
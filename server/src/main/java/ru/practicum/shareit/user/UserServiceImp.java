@@ -2,6 +2,7 @@ package ru.practicum.shareit.user;
 
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.BookingViewCache;
 import ru.practicum.shareit.error.EntityNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.dto.UserMapper;
@@ -12,6 +13,7 @@ import java.util.List;
 @RequiredArgsConstructor
 public class UserServiceImp implements UserService {
     private final UserRepository userRepository;
+    private final BookingViewCache bookingViewCache;
 
     @Override
     public UserDto getUser(Long id) {
@@ -40,6 +42,7 @@ public class UserServiceImp implements UserService {
         User user = UserMapper.toUser(userDto);
         User updatedUser = UserMapper.updateUserWithUser(oldUser, user);
         userRepository.save(updatedUser);
+        bookingViewCache.invalidateBooker(id);
         return UserMapper.toUserDto(updatedUser);
     }
 
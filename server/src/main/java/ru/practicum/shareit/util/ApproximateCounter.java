@@ -0,0 +1,47 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+@Component
+public class ApproximateCounter {
+    private static final int MAX_ENTRIES = 10_000;
+    private final Map<String, CachedCount> counts = new ConcurrentHashMap<>();
+    private final long ttlNanos;
+
+    public ApproximateCounter(@Value("${shareit.count-cache.ttl:30s}") Duration ttl) {
+        this.ttlNanos = ttl.toNanos();
+    }
+
+    public long count(String key, Supplier<Long> counter) {
+        long now = System.nanoTime();
+        CachedCount cachedCount = counts.get(key);
+        if (cachedCount != null && now - cachedCount.countedAt < ttlNanos) {
+            return cachedCount.value;
+        }
+        long value = counter.get();
+        if (counts.size() >= MAX_ENTRIES) {
+            counts.values().removeIf(x -> now - x.countedAt >= ttlNanos);
+            if (counts.size() >= MAX_ENTRIES) {
+                counts.clear();
+            }
+        }
+        counts.put(key, new CachedCount(value, now));
+        return value;
+    }
+
+    private static class CachedCount {
+        private final long value;
+        private final long countedAt;
+
+        CachedCount(long value, long countedAt) {
+            this.value = value;
+            this.countedAt = countedAt;
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.util;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.LongSupplier;
+
+public class TotalCountResponse {
+    public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+    public static <T> ResponseEntity<T> of(T body, boolean total, LongSupplier counter) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (total) {
+            response.header(TOTAL_COUNT_HEADER, String.valueOf(counter.getAsLong()));
+        }
+        return response.body(body);
+    }
+}
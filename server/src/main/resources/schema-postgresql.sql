@@ -0,0 +1,41 @@
+DROP VIEW IF EXISTS booking_records;
+DROP TABLE IF EXISTS bookings;
+
+CREATE TABLE bookings (
+  id bigint NOT NULL,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  item_id bigint NOT NULL,
+  booker_id bigint NOT NULL,
+  owner_id bigint NOT NULL,
+  status varchar NOT NULL,
+  PRIMARY KEY (id, start_date),
+  FOREIGN KEY (item_id) REFERENCES items(id),
+  FOREIGN KEY (booker_id) REFERENCES users(id)
+) PARTITION BY RANGE (start_date);
+
+CREATE TABLE bookings_before_2024 PARTITION OF bookings FOR VALUES FROM (MINVALUE) TO ('2024-01-01');
+CREATE TABLE bookings_2024 PARTITION OF bookings FOR VALUES FROM ('2024-01-01') TO ('2025-01-01');
+CREATE TABLE bookings_2025 PARTITION OF bookings FOR VALUES FROM ('2025-01-01') TO ('2026-01-01');
+CREATE TABLE bookings_2026 PARTITION OF bookings FOR VALUES FROM ('2026-01-01') TO ('2027-01-01');
+CREATE TABLE bookings_2027 PARTITION OF bookings FOR VALUES FROM ('2027-01-01') TO ('2028-01-01');
+CREATE TABLE bookings_2028 PARTITION OF bookings FOR VALUES FROM ('2028-01-01') TO ('2029-01-01');
+CREATE TABLE bookings_default PARTITION OF bookings DEFAULT;
+
+CREATE INDEX bookings_item_period_idx ON bookings (item_id, end_date, start_date);
+CREATE INDEX bookings_item_start_idx ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX bookings_owner_start_idx ON bookings (owner_id, start_date DESC, id DESC);
+CREATE INDEX bookings_waiting_start_idx ON bookings (start_date) WHERE status = 'WAITING';
+
+DROP INDEX IF EXISTS items_available_id_idx;
+CREATE INDEX items_available_id_idx ON items (id) WHERE available;
+
+ALTER TABLE items ADD COLUMN search_vector tsvector GENERATED ALWAYS AS (
+  setweight(to_tsvector('simple', name), 'A') || setweight(to_tsvector('simple', description), 'B')) STORED;
+CREATE INDEX items_search_vector_idx ON items USING GIN (search_vector);
+
+CREATE VIEW booking_records AS
+  SELECT id, start_date, end_date, item_id, booker_id, owner_id, status FROM bookings
+  UNION ALL
+  SELECT id, start_date, end_date, item_id, booker_id, owner_id, status FROM bookings_archive;
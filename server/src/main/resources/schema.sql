@@ -1,8 +1,14 @@
+DROP VIEW IF EXISTS booking_records;
 DROP TABLE IF EXISTS comments;
+DROP TABLE IF EXISTS item_booking_summary;
+DROP TABLE IF EXISTS bookings_archive;
 DROP TABLE IF EXISTS bookings;
 DROP TABLE IF EXISTS items;
 DROP TABLE IF EXISTS requests;
 DROP TABLE IF EXISTS users;
+DROP TABLE IF EXISTS booking_events;
+DROP SEQUENCE IF EXISTS bookings_id_seq;
+DROP SEQUENCE IF EXISTS booking_events_id_seq;
 
 CREATE TABLE users (
   id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -32,17 +38,81 @@ CREATE TABLE items (
   FOREIGN KEY (request_id) REFERENCES requests(id)
 );
 
+CREATE INDEX items_owner_idx ON items (owner_id);
+CREATE INDEX items_available_id_idx ON items (available, id);
+
+CREATE TABLE item_booking_summary (
+  item_id bigint PRIMARY KEY,
+  last_booking_id bigint,
+  last_booker_id bigint,
+  last_end TIMESTAMP WITHOUT TIME ZONE,
+  next_booking_id bigint,
+  next_booker_id bigint,
+  next_start TIMESTAMP WITHOUT TIME ZONE,
+  next_end TIMESTAMP WITHOUT TIME ZONE,
+  FOREIGN KEY (item_id) REFERENCES items(id)
+);
+
+CREATE INDEX item_booking_summary_next_start_idx ON item_booking_summary (next_start);
+
+CREATE SEQUENCE bookings_id_seq START WITH 1 INCREMENT BY 50;
+
 CREATE TABLE bookings (
-  id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  id bigint PRIMARY KEY,
+  start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  item_id bigint NOT NULL,
+  booker_id bigint NOT NULL,
+  owner_id bigint NOT NULL,
+  status varchar NOT NULL,
+  FOREIGN KEY (item_id) REFERENCES items(id),
+  FOREIGN KEY (booker_id) REFERENCES users(id)
+);
+
+CREATE INDEX bookings_item_period_idx ON bookings (item_id, end_date, start_date);
+CREATE INDEX bookings_item_start_idx ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX bookings_owner_start_idx ON bookings (owner_id, start_date DESC, id DESC);
+CREATE INDEX bookings_status_start_idx ON bookings (status, start_date);
+
+CREATE TABLE bookings_archive (
+  id bigint PRIMARY KEY,
   start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
   end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
   item_id bigint NOT NULL,
   booker_id bigint NOT NULL,
+  owner_id bigint NOT NULL,
   status varchar NOT NULL,
   FOREIGN KEY (item_id) REFERENCES items(id),
   FOREIGN KEY (booker_id) REFERENCES users(id)
 );
 
+CREATE INDEX bookings_archive_item_start_idx ON bookings_archive (item_id, start_date DESC, id DESC);
+CREATE INDEX bookings_archive_booker_start_idx ON bookings_archive (booker_id, start_date DESC, id DESC);
+CREATE INDEX bookings_archive_owner_start_idx ON bookings_archive (owner_id, start_date DESC, id DESC);
+
+CREATE VIEW booking_records AS
+  SELECT id, start_date, end_date, item_id, booker_id, owner_id, status FROM bookings
+  UNION ALL
+  SELECT id, start_date, end_date, item_id, booker_id, owner_id, status FROM bookings_archive;
+
+CREATE SEQUENCE booking_events_id_seq START WITH 1 INCREMENT BY 1;
+
+CREATE TABLE booking_events (
+  id bigint PRIMARY KEY,
+  booking_id bigint NOT NULL,
+  item_id bigint NOT NULL,
+  type varchar NOT NULL,
+  created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+  published TIMESTAMP WITHOUT TIME ZONE,
+  attempts integer NOT NULL DEFAULT 0,
+  last_error varchar
+);
+
+CREATE INDEX booking_events_pending_idx ON booking_events (published, id);
+CREATE INDEX booking_events_created_idx ON booking_events (created);
+CREATE INDEX booking_events_booking_idx ON booking_events (booking_id, id);
+
 CREATE TABLE comments (
   id bigint GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
   text varchar NOT NULL,
@@ -0,0 +1,83 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import ru.practicum.shareit.booking.model.BookingChange;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestBookingChangeFeed {
+    @Mock
+    private BookingEventRepository bookingEventRepository;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+    private MeterRegistry meterRegistry;
+    private BookingChangeFeed bookingChangeFeed;
+
+    @BeforeEach
+    private void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookingChangeFeed = new BookingChangeFeed(bookingEventRepository, applicationEventPublisher, meterRegistry,
+                Duration.ofSeconds(30));
+    }
+
+    @Test
+    void poll_success_eachEventDeliveredOnce() {
+        //given
+        BookingEvent created = createEvent(1L, BookingEventType.CREATED);
+        BookingEvent expired = createEvent(2L, BookingEventType.EXPIRED);
+        when(bookingEventRepository.findByCreatedGreaterThanEqualOrderById(any(LocalDateTime.class)))
+                .thenReturn(List.of(created))
+                .thenReturn(List.of(created, expired));
+        //when
+        int first = bookingChangeFeed.poll();
+        int second = bookingChangeFeed.poll();
+        //then
+        assertThat(first)
+                .isEqualTo(1);
+        assertThat(second)
+                .isEqualTo(1);
+        verify(applicationEventPublisher, times(1)).publishEvent(new BookingChange(1L, 1L, BookingEventType.CREATED));
+        verify(applicationEventPublisher, times(1)).publishEvent(new BookingChange(2L, 1L, BookingEventType.EXPIRED));
+    }
+
+    @Test
+    void poll_success_failedListenerSkipped() {
+        //given
+        when(bookingEventRepository.findByCreatedGreaterThanEqualOrderById(any(LocalDateTime.class)))
+                .thenReturn(List.of(createEvent(1L, BookingEventType.CREATED), createEvent(2L, BookingEventType.DELETED)));
+        doThrow(new IllegalStateException()).when(applicationEventPublisher)
+                .publishEvent(new BookingChange(1L, 1L, BookingEventType.CREATED));
+        //when
+        int delivered = bookingChangeFeed.poll();
+        //then
+        assertThat(delivered)
+                .isEqualTo(2);
+        verify(applicationEventPublisher).publishEvent(new BookingChange(2L, 1L, BookingEventType.DELETED));
+        assertThat(meterRegistry.get("shareit.booking.feed.failed").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    private BookingEvent createEvent(Long id, BookingEventType type) {
+        return BookingEvent.builder()
+                .id(id)
+                .bookingId(id)
+                .itemId(1L)
+                .type(type)
+                .created(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,140 @@
+package ru.practicum.shareit.booking;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.error.TimeOverlapException;
+import ru.practicum.shareit.item.ItemService;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.user.UserService;
+import ru.practicum.shareit.user.dto.UserDto;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+@SpringBootTest(
+        properties = { "spring.datasource.driverClassName=org.h2.Driver",
+                "spring.datasource.url=jdbc:h2:mem:shareit;LOCK_TIMEOUT=10000",
+                "spring.datasource.username=test",
+                "spring.datasource.password=test"}
+)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class TestBookingConcurrency {
+    private final BookingService bookingService;
+    private final BookingRepository bookingRepository;
+    private final UserService userService;
+    private final ItemService itemService;
+    private int threads = 16;
+    private int requests = 2000;
+    private int items = 4;
+    private int bookers = 8;
+
+    @Test
+    void addBooking_concurrent_noDoubleBookings() throws Exception {
+        //given
+        List<Callable<Boolean>> tasks = createBookingTasks();
+        //when
+        int accepted = runAll(tasks);
+        //then
+        assertNoDoubleBookings(accepted);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void addBooking_concurrent_benchmark() throws Exception {
+        //given
+        List<Callable<Boolean>> tasks = createBookingTasks();
+        //when
+        long begin = System.nanoTime();
+        int accepted = runAll(tasks);
+        long elapsed = System.nanoTime() - begin;
+        System.out.printf("concurrent bookings: %d requests, %d accepted, %d threads, %.0f requests/s%n",
+                requests, accepted, threads, requests / (elapsed / 1_000_000_000.0));
+        //then
+        assertNoDoubleBookings(accepted);
+    }
+
+    private List<Callable<Boolean>> createBookingTasks() {
+        Long ownerId = userService.addUser(UserDto.builder().name("Peter").email("iown@mail.ts").build()).getId();
+        List<Long> itemIds = new ArrayList<>();
+        for (int i = 0; i < items; i++) {
+            itemIds.add(itemService.addItem(ownerId, ItemDto.builder()
+                    .name("thing " + i)
+                    .description("very thing")
+                    .available(Boolean.TRUE)
+                    .build()).getId());
+        }
+        List<Long> bookerIds = new ArrayList<>();
+        for (int i = 0; i < bookers; i++) {
+            bookerIds.add(userService.addUser(UserDto.builder()
+                    .name("Ken " + i)
+                    .email("eken" + i + "@mail.ts")
+                    .build()).getId());
+        }
+        LocalDateTime origin = LocalDateTime.of(2035, 1, 1, 0, 0, 0);
+        Random random = new Random(42);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+        for (int i = 0; i < requests; i++) {
+            LocalDateTime start = origin.plusHours(random.nextInt(200));
+            BookingDto bookingDto = BookingDto.builder()
+                    .start(start)
+                    .end(start.plusHours(1 + random.nextInt(6)))
+                    .itemId(itemIds.get(random.nextInt(items)))
+                    .build();
+            Long bookerId = bookerIds.get(random.nextInt(bookers));
+            tasks.add(() -> {
+                try {
+                    bookingService.addBooking(bookingDto, bookerId);
+                    return true;
+                } catch (TimeOverlapException e) {
+                    return false;
+                }
+            });
+        }
+        return tasks;
+    }
+
+    private int runAll(List<Callable<Boolean>> tasks) throws Exception {
+        AtomicInteger accepted = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        for (Future<Boolean> result : executor.invokeAll(tasks)) {
+            if (result.get()) {
+                accepted.incrementAndGet();
+            }
+        }
+        executor.shutdown();
+        return accepted.get();
+    }
+
+    private void assertNoDoubleBookings(int accepted) {
+        Map<Long, List<Booking>> bookingsByItem = bookingRepository.findAll().stream()
+                .collect(Collectors.groupingBy(x -> x.getItem().getId()));
+        assertThat(bookingsByItem.values().stream().mapToInt(List::size).sum())
+                .isEqualTo(accepted);
+        for (List<Booking> itemBookings : bookingsByItem.values()) {
+            List<Booking> sorted = itemBookings.stream()
+                    .sorted((a, b) -> a.getStart().compareTo(b.getStart()))
+                    .collect(Collectors.toList());
+            for (int i = 1; i < sorted.size(); i++) {
+                assertThat(sorted.get(i).getStart())
+                        .isAfterOrEqualTo(sorted.get(i - 1).getEnd());
+            }
+        }
+    }
+}
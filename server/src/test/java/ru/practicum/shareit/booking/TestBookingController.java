@@ -9,12 +9,20 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
+import ru.practicum.shareit.booking.dto.BookingApprovalDto;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingFullDto;
+import ru.practicum.shareit.booking.model.ApprovalResult;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.error.EntityNotFoundException;
@@ -30,7 +38,10 @@ import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
@@ -85,6 +96,63 @@ public class TestBookingController {
                 .andExpect(status().isNotFound());
     }
 
+    @Test
+    void addBookings_success() throws Exception {
+        //given
+        List<BookingDto> bookingDtos = List.of(createBookingDto());
+        when(bookingService.addBookings(anyList(), anyLong()))
+                .thenReturn(List.of(createBookingFullDto()));
+        //then
+        mvc.perform(post("/bookings/batch")
+                        .content(mapper.writeValueAsString(bookingDtos))
+                        .header(headerXSharerUserId, 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id", is(bookingId), Long.class))
+                .andExpect(jsonPath("$[0].status", is(Status.WAITING.toString())));
+    }
+
+    @Test
+    void getUserBookingsAfterCursor_success() throws Exception {
+        //given
+        BookingFullDto bookingFullDto = createBookingFullDto();
+        when(bookingService.getUserBookingsAfter(anyLong(), any(), any(), anyInt()))
+                .thenReturn(List.of(bookingFullDto));
+        //then
+        mvc.perform(get("/bookings")
+                        .param("cursor", "")
+                        .param("size", "1")
+                        .header(headerXSharerUserId, 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string("X-Next-Cursor", BookingCursor.of(bookingFullDto).encode()));
+    }
+
+    @Test
+    void getBookingWithOwnerAfterCursor_lastPage() throws Exception {
+        //given
+        BookingFullDto bookingFullDto = createBookingFullDto();
+        when(bookingService.getOwnerBookingsAfter(anyLong(), any(), any(BookingCursor.class), anyInt()))
+                .thenReturn(List.of(bookingFullDto));
+        //then
+        mvc.perform(get("/bookings/owner")
+                        .param("cursor", BookingCursor.of(bookingFullDto).encode())
+                        .param("size", "10")
+                        .header(headerXSharerUserId, 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().doesNotExist("X-Next-Cursor"));
+    }
+
     @Test
     void getBooking_failure_wrongBookingId() throws Exception {
         //given
@@ -118,6 +186,45 @@ public class TestBookingController {
                 .andExpect(jsonPath("$.status", is(Status.WAITING.toString())));
     }
 
+    @Test
+    void exportBookings_success() throws Exception {
+        //given
+        BookingFullDto bookingFullDto = createBookingFullDto();
+        doAnswer(x -> {
+            Consumer<BookingFullDto> consumer = x.getArgument(2);
+            consumer.accept(bookingFullDto);
+            consumer.accept(bookingFullDto);
+            return null;
+        }).when(bookingService).exportBookings(anyLong(), eq(BookingRole.OWNER), any());
+        //when
+        MvcResult result = mvc.perform(get("/bookings/export")
+                        .header(headerXSharerUserId, 1)
+                        .param("role", "OWNER"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        //then
+        String line = mapper.writeValueAsString(bookingFullDto) + "\n";
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string(line + line));
+    }
+
+    @Test
+    void getOwnerBookingSummary_success() throws Exception {
+        //given
+        when(bookingService.getOwnerBookingSummary(anyLong())).thenReturn(Map.of(State.ALL, 3L, State.WAITING, 1L));
+        //then
+        mvc.perform(get("/bookings/owner/summary")
+                        .header(headerXSharerUserId, 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.ALL", is(3L), Long.class))
+                .andExpect(jsonPath("$.WAITING", is(1L), Long.class));
+        verify(bookingService, never()).getOwnerBookingsWithState(anyLong(), any(), anyInt(), anyInt());
+    }
+
     @Test
     void getBookingWithOwner_success() throws Exception {
         //given
@@ -141,6 +248,38 @@ public class TestBookingController {
                 .andExpect(jsonPath("$", hasSize(1)));
     }
 
+    @Test
+    void getBookingWithOwnerWithState_success_totalCount() throws Exception {
+        //given
+        when(bookingService.getOwnerBookingsWithState(anyLong(), any(State.class), anyInt(), anyInt()))
+                .thenReturn(List.of(createBookingFullDto()));
+        when(bookingService.countOwnerBookings(1L, State.FUTURE)).thenReturn(42L);
+        //then
+        mvc.perform(get("/bookings/owner")
+                        .header(headerXSharerUserId, 1)
+                        .param("state", State.FUTURE.toString())
+                        .param("from", "0")
+                        .param("size", "10")
+                        .param("total", "true")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(header().string("X-Total-Count", "42"));
+        mvc.perform(get("/bookings/owner")
+                        .header(headerXSharerUserId, 1)
+                        .param("state", State.FUTURE.toString())
+                        .param("from", "0")
+                        .param("size", "10")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Total-Count"));
+        verify(bookingService, times(1)).countOwnerBookings(anyLong(), any());
+    }
+
     @Test
     void getBookingWithOwnerWithState_success() throws Exception {
         //given
@@ -237,6 +376,31 @@ public class TestBookingController {
                 .andExpect(jsonPath("$.status", is(Status.APPROVED.toString())));
     }
 
+    @Test
+    void updateBookings_success() throws Exception {
+        //given
+        BookingApprovalDto bookingApprovalDto = BookingApprovalDto.builder()
+                .bookingIds(List.of(bookingId, 2L))
+                .approved(Boolean.TRUE)
+                .build();
+        when(bookingService.updateBookings(anyLong(), anyList(), anyBoolean()))
+                .thenReturn(List.of(new BookingApprovalResultDto(bookingId, ApprovalResult.APPROVED),
+                        new BookingApprovalResultDto(2L, ApprovalResult.WRONG_STATUS)));
+        //then
+        mvc.perform(patch("/bookings/approval")
+                        .header(headerXSharerUserId, 1)
+                        .content(mapper.writeValueAsString(bookingApprovalDto))
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].bookingId", is(bookingId), Long.class))
+                .andExpect(jsonPath("$[0].result", is(ApprovalResult.APPROVED.toString())))
+                .andExpect(jsonPath("$[1].result", is(ApprovalResult.WRONG_STATUS.toString())));
+        verify(bookingService, times(1)).updateBookings(1L, List.of(bookingId, 2L), Boolean.TRUE);
+    }
+
     @Test
     void updateBooking_failure_wrongStatus() throws Exception {
         //given
@@ -4,6 +4,8 @@ import org.springframework.boot.test.autoconfigure.json.JsonTest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.json.JacksonTester;
 import org.springframework.boot.test.json.JsonContent;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingFullDto;
 import ru.practicum.shareit.booking.dto.BookingMinDto;
@@ -15,6 +17,7 @@ import java.io.IOException;
 import java.time.LocalDateTime;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @JsonTest
 public class TestBookingDto {
@@ -52,6 +55,20 @@ public class TestBookingDto {
                 .isEqualTo(bookingDto.getStatus().name());
     }
 
+    @Test
+    void bookingCursor_encodeDecode_success() {
+        //given
+        BookingCursor cursor = BookingCursor.of(createBookingFullDto());
+        //when
+        BookingCursor decodedCursor = BookingCursor.decode(cursor.encode());
+        //then
+        assertThat(decodedCursor)
+                .isEqualTo(cursor);
+        assertThat(BookingCursor.decode(""))
+                .isNull();
+        assertThrows(ResponseStatusException.class, () -> BookingCursor.decode("not a cursor"));
+    }
+
     @Test
     void bookingFullDtoJacksonTester_success() throws IOException {
         //given
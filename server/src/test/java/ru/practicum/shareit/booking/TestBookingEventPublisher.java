@@ -0,0 +1,142 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestBookingEventPublisher {
+    @Mock
+    private BookingEventRepository bookingEventRepository;
+    @Mock
+    private ApplicationEventPublisher applicationEventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private MeterRegistry meterRegistry;
+    private BookingEventPublisher bookingEventPublisher;
+
+    @BeforeEach
+    private void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        bookingEventPublisher = new BookingEventPublisher(bookingEventRepository, applicationEventPublisher,
+                new TransactionTemplate(transactionManager), meterRegistry, 100, 3, Duration.ofMinutes(10));
+    }
+
+    @Test
+    void publish_success() {
+        //given
+        BookingEvent created = createEvent(1L, 1L, BookingEventType.CREATED, LocalDateTime.now().minusMinutes(1));
+        BookingEvent approved = createEvent(2L, 2L, BookingEventType.APPROVED, LocalDateTime.now());
+        when(bookingEventRepository.findBookingHeadsForUpdate(eq(3), any(Pageable.class)))
+                .thenReturn(List.of(created, approved));
+        //when
+        int published = bookingEventPublisher.publish();
+        //then
+        InOrder inOrder = inOrder(applicationEventPublisher, bookingEventRepository);
+        inOrder.verify(applicationEventPublisher).publishEvent(created);
+        inOrder.verify(applicationEventPublisher).publishEvent(approved);
+        inOrder.verify(bookingEventRepository).saveAll(List.of(created, approved));
+        inOrder.verify(bookingEventRepository).deleteByPublishedBefore(any(LocalDateTime.class));
+        verify(bookingEventRepository).findBookingHeadsForUpdate(3, PageRequest.of(0, 100));
+        verify(transactionManager, times(2)).commit(any());
+        assertThat(created.getPublished())
+                .isNotNull();
+        assertThat(published)
+                .isEqualTo(2);
+        assertThat(meterRegistry.get("shareit.booking.outbox.published").counter().count())
+                .isEqualTo(2.0);
+        assertThat(meterRegistry.get("shareit.booking.outbox.lag").gauge().value())
+                .isGreaterThanOrEqualTo(60.0);
+    }
+
+    @Test
+    void publish_success_empty() {
+        //given
+        when(bookingEventRepository.findBookingHeadsForUpdate(eq(3), any(Pageable.class))).thenReturn(List.of());
+        //when
+        int published = bookingEventPublisher.publish();
+        //then
+        assertThat(published)
+                .isEqualTo(0);
+        assertThat(meterRegistry.get("shareit.booking.outbox.lag").gauge().value())
+                .isEqualTo(0.0);
+        verifyNoInteractions(applicationEventPublisher);
+    }
+
+    @Test
+    void publish_success_drainsFullBatches() {
+        //given
+        bookingEventPublisher = new BookingEventPublisher(bookingEventRepository, applicationEventPublisher,
+                new TransactionTemplate(transactionManager), meterRegistry, 1, 3, Duration.ofMinutes(10));
+        BookingEvent created = createEvent(1L, 1L, BookingEventType.CREATED, LocalDateTime.now());
+        BookingEvent approved = createEvent(2L, 1L, BookingEventType.APPROVED, LocalDateTime.now());
+        when(bookingEventRepository.findBookingHeadsForUpdate(eq(3), any(Pageable.class)))
+                .thenReturn(List.of(created))
+                .thenReturn(List.of(approved))
+                .thenReturn(List.of());
+        //when
+        int published = bookingEventPublisher.publish();
+        //then
+        InOrder inOrder = inOrder(applicationEventPublisher);
+        inOrder.verify(applicationEventPublisher).publishEvent(created);
+        inOrder.verify(applicationEventPublisher).publishEvent(approved);
+        assertThat(published)
+                .isEqualTo(2);
+    }
+
+    @Test
+    void publish_success_failedEventHoldsOnlyItsBooking() {
+        //given
+        BookingEvent created = createEvent(1L, 1L, BookingEventType.CREATED, LocalDateTime.now());
+        BookingEvent broken = createEvent(2L, 2L, BookingEventType.CREATED, LocalDateTime.now());
+        BookingEvent approved = createEvent(3L, 3L, BookingEventType.APPROVED, LocalDateTime.now());
+        when(bookingEventRepository.findBookingHeadsForUpdate(eq(3), any(Pageable.class)))
+                .thenReturn(List.of(created, broken, approved));
+        doThrow(new IllegalStateException("listener failed")).when(applicationEventPublisher).publishEvent(broken);
+        //when
+        int published = bookingEventPublisher.publish();
+        //then
+        assertThat(published)
+                .isEqualTo(2);
+        verify(transactionManager).rollback(any());
+        verify(bookingEventRepository).recordFailure(2L, "java.lang.IllegalStateException: listener failed");
+        verify(bookingEventRepository).findBookingHeadsForUpdate(3, PageRequest.of(0, 101));
+        verify(bookingEventRepository).saveAll(List.of(created, approved));
+        verify(applicationEventPublisher, times(2)).publishEvent(created);
+        verify(applicationEventPublisher, times(1)).publishEvent(broken);
+        assertThat(broken.getPublished())
+                .isNull();
+        assertThat(meterRegistry.get("shareit.booking.outbox.failed").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    private BookingEvent createEvent(Long id, Long bookingId, BookingEventType type, LocalDateTime created) {
+        return BookingEvent.builder()
+                .id(id)
+                .bookingId(bookingId)
+                .itemId(1L)
+                .type(type)
+                .created(created)
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingRefDto;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import ru.practicum.shareit.booking.model.Status;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestBookingExpirySweeper {
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private BookingEventRepository bookingEventRepository;
+    private MeterRegistry meterRegistry;
+    private BookingExpirySweeper bookingExpirySweeper;
+
+    @BeforeEach
+    private void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookingExpirySweeper = new BookingExpirySweeper(bookingRepository, bookingEventRepository, meterRegistry, 2);
+    }
+
+    @Test
+    void sweep_success() {
+        //given
+        when(bookingRepository.findRefsForUpdateByStatusAndStartBefore(eq(Status.WAITING), any(),
+                argThat((Pageable x) -> x.getPageSize() == 2)))
+                .thenReturn(List.of(new BookingRefDto(1L, 10L, Status.WAITING),
+                        new BookingRefDto(2L, 20L, Status.WAITING)));
+        when(bookingRepository.updateStatusByIdIn(List.of(1L, 2L), Status.WAITING, Status.EXPIRED)).thenReturn(2);
+        //when
+        int expired = bookingExpirySweeper.sweep();
+        //then
+        ArgumentCaptor<List<BookingEvent>> captor = ArgumentCaptor.forClass(List.class);
+        assertThat(expired)
+                .isEqualTo(2);
+        verify(bookingEventRepository, times(1)).saveAll(captor.capture());
+        assertThat(captor.getValue())
+                .extracting(BookingEvent::getBookingId, BookingEvent::getItemId, BookingEvent::getType)
+                .containsExactly(tuple(1L, 10L, BookingEventType.EXPIRED), tuple(2L, 20L, BookingEventType.EXPIRED));
+        assertThat(meterRegistry.get("shareit.booking.expiry.swept").summary().totalAmount())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void sweep_success_nothingStale() {
+        //given
+        when(bookingRepository.findRefsForUpdateByStatusAndStartBefore(any(), any(), any())).thenReturn(List.of());
+        //when
+        int expired = bookingExpirySweeper.sweep();
+        //then
+        assertThat(expired)
+                .isZero();
+        verify(bookingRepository, never()).updateStatusByIdIn(any(), any(), any());
+        verifyNoInteractions(bookingEventRepository);
+        assertThat(meterRegistry.get("shareit.booking.expiry.swept").summary().count())
+                .isEqualTo(1L);
+    }
+}
@@ -0,0 +1,154 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingChange;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestBookingIntervalIndex {
+    @Mock
+    private BookingRepository bookingRepository;
+    private BookingIntervalIndex bookingIntervalIndex;
+    private Item item;
+    private LocalDateTime start = LocalDateTime.of(2035, 1, 1, 1, 0, 0);
+    private LocalDateTime end = LocalDateTime.of(2035, 1, 1, 2, 0, 0);
+
+    @BeforeEach
+    private void init() {
+        bookingIntervalIndex = new BookingIntervalIndex(bookingRepository);
+        item = Item.builder()
+                .id(1L)
+                .name("thing")
+                .description("very thing")
+                .available(Boolean.TRUE)
+                .owner(2L)
+                .build();
+    }
+
+    @Test
+    void isOverlapping_success() {
+        //given
+        when(bookingRepository.findByItemIdOrderByStartDesc(anyLong()))
+                .thenReturn(List.of(createBooking(1L, start, end, Status.APPROVED)));
+        //then
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start, end)).isTrue();
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start.plusMinutes(30), end.plusHours(1))).isTrue();
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start.minusHours(1), start.plusMinutes(1))).isTrue();
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start.plusMinutes(10), end.minusMinutes(10))).isTrue();
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start.minusHours(1), end.plusHours(1))).isTrue();
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start, end.plusHours(1))).isTrue();
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), end, end.plusHours(1))).isFalse();
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start.minusHours(1), start)).isFalse();
+    }
+
+    @Test
+    void isOverlapping_ignoresRejectedAndCanceled() {
+        //given
+        when(bookingRepository.findByItemIdOrderByStartDesc(anyLong())).thenReturn(List.of(
+                createBooking(1L, start, end, Status.REJECTED),
+                createBooking(2L, start, end, Status.CANCELED)));
+        //then
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start, end)).isFalse();
+    }
+
+    @Test
+    void onBookingChange_success_expiredReloadsTimeline() {
+        //given
+        when(bookingRepository.findByItemIdOrderByStartDesc(anyLong()))
+                .thenReturn(List.of(createBooking(1L, start, end, Status.WAITING)))
+                .thenReturn(List.of(createBooking(1L, start, end, Status.EXPIRED)));
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start, end)).isTrue();
+        //when
+        bookingIntervalIndex.onBookingChange(new BookingChange(1L, item.getId(), BookingEventType.EXPIRED));
+        //then
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start, end)).isFalse();
+    }
+
+    @Test
+    void addAndRemove_success() {
+        //given
+        Booking booking = createBooking(1L, start, end, Status.WAITING);
+        when(bookingRepository.findByItemIdOrderByStartDesc(anyLong())).thenReturn(List.of());
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start, end)).isFalse();
+        //when
+        bookingIntervalIndex.add(booking);
+        bookingIntervalIndex.add(booking);
+        //then
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start, end)).isTrue();
+        //when
+        booking.setStatus(Status.REJECTED);
+        bookingIntervalIndex.update(booking, Status.WAITING);
+        //then
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start, end)).isFalse();
+        //when
+        booking.setStatus(Status.APPROVED);
+        bookingIntervalIndex.update(booking, Status.REJECTED);
+        //then
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start, end)).isTrue();
+        //when
+        bookingIntervalIndex.remove(booking);
+        //then
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start, end)).isFalse();
+        verify(bookingRepository, times(1)).findByItemIdOrderByStartDesc(item.getId());
+    }
+
+    @Test
+    void remove_success_restoredOnRollback() {
+        //given
+        Booking booking = createBooking(1L, start, end, Status.APPROVED);
+        when(bookingRepository.findByItemIdOrderByStartDesc(anyLong())).thenReturn(List.of(booking));
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start, end)).isTrue();
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            //when
+            booking.setStatus(Status.CANCELED);
+            bookingIntervalIndex.remove(booking);
+            assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start, end)).isFalse();
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(x -> x.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        //then
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start, end)).isTrue();
+        verify(bookingRepository, times(1)).findByItemIdOrderByStartDesc(item.getId());
+    }
+
+    @Test
+    void isOverlapping_manyBookings() {
+        //given
+        when(bookingRepository.findByItemIdOrderByStartDesc(anyLong())).thenReturn(List.of());
+        bookingIntervalIndex.isOverlapping(item.getId(), start, end);
+        for (long i = 0; i < 1000; i++) {
+            bookingIntervalIndex.add(createBooking(i, start.plusHours(2 * i), start.plusHours(2 * i + 1), Status.APPROVED));
+        }
+        //then
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start.plusHours(501), start.plusHours(502))).isFalse();
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start.plusHours(501), start.plusHours(503))).isTrue();
+        assertThat(bookingIntervalIndex.isOverlapping(item.getId(), start.plusHours(2000), start.plusHours(2001))).isFalse();
+    }
+
+    private Booking createBooking(Long id, LocalDateTime bookingStart, LocalDateTime bookingEnd, Status status) {
+        return Booking.builder()
+                .id(id)
+                .start(bookingStart)
+                .end(bookingEnd)
+                .item(item)
+                .status(status)
+                .build();
+    }
+}
@@ -1,6 +1,9 @@
 package ru.practicum.shareit.booking;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
@@ -8,13 +11,25 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingCursor;
+import ru.practicum.shareit.booking.dto.BookingFullDto;
+import ru.practicum.shareit.booking.dto.BookingRefDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
+import javax.persistence.PersistenceUnitUtil;
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -22,7 +37,8 @@ import static org.assertj.core.api.Assertions.assertThat;
         properties = { "spring.datasource.driverClassName=org.h2.Driver",
                 "spring.datasource.url=jdbc:h2:mem:shareit",
                 "spring.datasource.username=test",
-                "spring.datasource.password=test"}
+                "spring.datasource.password=test",
+                "spring.jpa.properties.hibernate.generate_statistics=true"}
 )
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 @AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
@@ -31,6 +47,8 @@ public class TestBookingJpa {
     private TestEntityManager em;
     @Autowired
     private BookingRepository bookingRepository;
+    @Autowired
+    private BookingEventRepository bookingEventRepository;
     private Booking booking;
     private Item item;
     private User user;
@@ -50,14 +68,38 @@ public class TestBookingJpa {
     }
 
     @Test
-    void findUsersBookingForAnItemOrderByStartDesc_success() {
+    void existsByUserIdAndItemIdAndStatusNotAndStartBefore_success() {
+        //given
+        LocalDateTime afterStart = booking.getStart().plusMinutes(1);
+        //then
+        assertThat(bookingRepository.existsByUserIdAndItemIdAndStatusNotAndStartBefore(user.getId(), item.getId(),
+                Status.REJECTED, afterStart)).isTrue();
+        assertThat(bookingRepository.existsByUserIdAndItemIdAndStatusNotAndStartBefore(user.getId(), item.getId(),
+                Status.REJECTED, booking.getStart())).isFalse();
+        assertThat(bookingRepository.existsByUserIdAndItemIdAndStatusNotAndStartBefore(owner.getId(), item.getId(),
+                Status.REJECTED, afterStart)).isFalse();
+        assertThat(bookingRepository.existsByUserIdAndItemIdAndStatusNotAndStartBefore(user.getId(), item.getId(),
+                Status.WAITING, afterStart)).isFalse();
+    }
+
+    @Test
+    void findDetailedById_success() {
+        //given
+        em.flush();
+        em.clear();
+        PersistenceUnitUtil persistenceUnitUtil = em.getEntityManager().getEntityManagerFactory()
+                .getPersistenceUnitUtil();
         //when
-        List<Booking> bookings = bookingRepository.findUsersBookingForAnItemOrderByStartDesc(user.getId(), item.getId());
+        Booking detailedBooking = bookingRepository.findDetailedById(booking.getId()).orElseThrow();
         //then
-        assertThat(bookings)
-                .isNotNull()
-                .isInstanceOf(List.class)
-                .hasSize(1);
+        assertThat(persistenceUnitUtil.isLoaded(detailedBooking, "item"))
+                .isTrue();
+        assertThat(persistenceUnitUtil.isLoaded(detailedBooking, "user"))
+                .isTrue();
+        em.clear();
+        Booking plainBooking = bookingRepository.findByItemIdOrderByStartDesc(item.getId()).get(0);
+        assertThat(persistenceUnitUtil.isLoaded(plainBooking, "user"))
+                .isFalse();
     }
 
     @Test
@@ -72,10 +114,10 @@ public class TestBookingJpa {
     }
 
     @Test
-    void findAllOwnerBookings_success() {
+    void findBookings_success_ownerAll() {
         //when
-        List<Booking> bookings = bookingRepository.findAllOwnerBookings(owner.getId(), page).stream()
-                .collect(Collectors.toList());
+        List<BookingFullDto> bookings = bookingRepository.findBookings(
+                createQuery(BookingRole.OWNER, owner.getId(), State.ALL, LocalDateTime.now()));
         //then
         assertThat(bookings)
                 .isNotNull()
@@ -84,10 +126,10 @@ public class TestBookingJpa {
     }
 
     @Test
-    void findAllOwnerBookingsOrderByStartDesc_success() {
+    void findBookings_success_ownerOrderedByStartDesc() {
         //when
-        List<Booking> bookings = bookingRepository.findAllOwnerBookingsOrderByStartDesc(owner.getId(), page).stream()
-                .collect(Collectors.toList());
+        List<BookingFullDto> bookings = bookingRepository.findBookings(
+                createQuery(BookingRole.OWNER, owner.getId(), State.ALL, LocalDateTime.now()));
         //then
         assertThat(bookings)
                 .isNotNull()
@@ -96,11 +138,10 @@ public class TestBookingJpa {
     }
 
     @Test
-    void findAllOwnerBookingsAndStatus_success() {
+    void findBookings_success_ownerWaiting() {
         //when
-        List<Booking> bookings = bookingRepository.findAllOwnerBookingsAndStatus(owner.getId(), Status.WAITING, page)
-                .stream()
-                .collect(Collectors.toList());
+        List<BookingFullDto> bookings = bookingRepository.findBookings(
+                createQuery(BookingRole.OWNER, owner.getId(), State.WAITING, LocalDateTime.now()));
         //then
         assertThat(bookings)
                 .isNotNull()
@@ -109,10 +150,10 @@ public class TestBookingJpa {
     }
 
     @Test
-    void findByUserIdAndStatus_success() {
+    void findBookings_success_bookerWaiting() {
         //when
-        List<Booking> bookings = bookingRepository.findByUserIdAndStatus(user.getId(), Status.WAITING, page).stream()
-                .collect(Collectors.toList());
+        List<BookingFullDto> bookings = bookingRepository.findBookings(
+                createQuery(BookingRole.BOOKER, user.getId(), State.WAITING, LocalDateTime.now()));
         //then
         assertThat(bookings)
                 .isNotNull()
@@ -121,12 +162,12 @@ public class TestBookingJpa {
     }
 
     @Test
-    void findByOwnerIdAndEndBefore_success() {
+    void findBookings_success_ownerPast() {
         //given
-        LocalDateTime beforeEnd = LocalDateTime.of(2025, 1, 1, 3, 1, 1);
+        LocalDateTime beforeEnd = LocalDateTime.of(2035, 1, 1, 3, 1, 1);
         //when
-        List<Booking> bookings = bookingRepository.findByOwnerIdAndEndBefore(owner.getId(), beforeEnd, page).stream()
-                .collect(Collectors.toList());
+        List<BookingFullDto> bookings = bookingRepository.findBookings(
+                createQuery(BookingRole.OWNER, owner.getId(), State.PAST, beforeEnd));
         //then
         assertThat(bookings)
                 .isNotNull()
@@ -135,12 +176,12 @@ public class TestBookingJpa {
     }
 
     @Test
-    void findByOwnerIdAndStartAfter_success() {
+    void findBookings_success_ownerFuture() {
         //given
-        LocalDateTime startAfter = LocalDateTime.of(2025, 1, 1, 0, 1, 1);
+        LocalDateTime startAfter = LocalDateTime.of(2035, 1, 1, 0, 1, 1);
         //when
-        List<Booking> bookings = bookingRepository.findByOwnerIdAndStartAfter(owner.getId(), startAfter, page).stream()
-                .collect(Collectors.toList());
+        List<BookingFullDto> bookings = bookingRepository.findBookings(
+                createQuery(BookingRole.OWNER, owner.getId(), State.FUTURE, startAfter));
         //then
         assertThat(bookings)
                 .isNotNull()
@@ -149,12 +190,12 @@ public class TestBookingJpa {
     }
 
     @Test
-    void findByOwnerIdAndTimeCurrent_success() {
+    void findBookings_success_ownerCurrent() {
         //given
-        LocalDateTime current = LocalDateTime.of(2025, 1, 1, 1, 30, 1);
+        LocalDateTime current = LocalDateTime.of(2035, 1, 1, 1, 30, 1);
         //when
-        List<Booking> bookings = bookingRepository.findByOwnerIdAndTimeCurrent(owner.getId(), current, page).stream()
-                .collect(Collectors.toList());
+        List<BookingFullDto> bookings = bookingRepository.findBookings(
+                createQuery(BookingRole.OWNER, owner.getId(), State.CURRENT, current));
         //then
         assertThat(bookings)
                 .isNotNull()
@@ -163,12 +204,12 @@ public class TestBookingJpa {
     }
 
     @Test
-    void findByUserIdAndEndBefore_success() {
+    void findBookings_success_bookerPast() {
         //given
-        LocalDateTime endBefore = LocalDateTime.of(2025, 2, 1, 1, 1, 1);
+        LocalDateTime endBefore = LocalDateTime.of(2035, 2, 1, 1, 1, 1);
         //when
-        List<Booking> bookings = bookingRepository.findByUserIdAndEndBefore(user.getId(), endBefore, page).stream()
-                .collect(Collectors.toList());
+        List<BookingFullDto> bookings = bookingRepository.findBookings(
+                createQuery(BookingRole.BOOKER, user.getId(), State.PAST, endBefore));
         //then
         assertThat(bookings)
                 .isNotNull()
@@ -177,12 +218,12 @@ public class TestBookingJpa {
     }
 
     @Test
-    void findByUserIdAndStartAfter_success() {
+    void findBookings_success_bookerFuture() {
         //given
-        LocalDateTime startAfter = LocalDateTime.of(2024, 2, 1, 1, 1, 1);
+        LocalDateTime startAfter = LocalDateTime.of(2034, 2, 1, 1, 1, 1);
         //when
-        List<Booking> bookings = bookingRepository.findByUserIdAndStartAfter(user.getId(), startAfter, page).stream()
-                .collect(Collectors.toList());
+        List<BookingFullDto> bookings = bookingRepository.findBookings(
+                createQuery(BookingRole.BOOKER, user.getId(), State.FUTURE, startAfter));
         //then
         assertThat(bookings)
                 .isNotNull()
@@ -191,12 +232,12 @@ public class TestBookingJpa {
     }
 
     @Test
-    void findByUserIdAndTimeCurrent_success() {
+    void findBookings_success_bookerCurrent() {
         //given
-        LocalDateTime current = LocalDateTime.of(2025, 1, 1, 1, 30, 1);
+        LocalDateTime current = LocalDateTime.of(2035, 1, 1, 1, 30, 1);
         //when
-        List<Booking> bookings = bookingRepository.findByUserIdAndTimeCurrent(user.getId(), current, page).stream()
-                .collect(Collectors.toList());
+        List<BookingFullDto> bookings = bookingRepository.findBookings(
+                createQuery(BookingRole.BOOKER, user.getId(), State.CURRENT, current));
         //then
         assertThat(bookings)
                 .isNotNull()
@@ -204,6 +245,326 @@ public class TestBookingJpa {
                 .hasSize(1);
     }
 
+    @Test
+    void findBookings_success_orderedAndSeek() {
+        //given
+        Booking later = createBooking();
+        later.setStart(booking.getStart().plusDays(1));
+        later.setEnd(booking.getEnd().plusDays(1));
+        em.persist(later);
+        //when
+        List<BookingFullDto> bookings = bookingRepository.findBookings(
+                createQuery(BookingRole.BOOKER, user.getId(), State.ALL, LocalDateTime.now()));
+        BookingQuery nextPage = createQuery(BookingRole.BOOKER, user.getId(), State.ALL, LocalDateTime.now());
+        nextPage.setCursor(new BookingCursor(later.getStart(), later.getId()));
+        //then
+        assertThat(bookings)
+                .extracting(BookingFullDto::getId)
+                .containsExactly(later.getId(), booking.getId());
+        assertThat(bookingRepository.findBookings(nextPage))
+                .extracting(BookingFullDto::getId)
+                .containsExactly(booking.getId());
+        assertThat(bookingRepository.findBookings(createQuery(BookingRole.BOOKER, owner.getId(), State.ALL,
+                LocalDateTime.now())))
+                .isEmpty();
+    }
+
+    @Test
+    void findBookings_success_constantStatementCount() {
+        //given
+        ItemRequest itemRequest = ItemRequest.builder()
+                .description("need a thing")
+                .requestor(user)
+                .created(LocalDateTime.of(2034, 1, 1, 1, 1, 1))
+                .available(Boolean.TRUE)
+                .build();
+        em.persist(itemRequest);
+        item.setRequest(itemRequest);
+        for (int i = 1; i < 20; i++) {
+            Item requestedItem = createItem();
+            requestedItem.setRequest(itemRequest);
+            em.persist(requestedItem);
+            Booking otherBooking = createBooking();
+            otherBooking.setItem(requestedItem);
+            otherBooking.setStart(booking.getStart().plusDays(i));
+            otherBooking.setEnd(booking.getEnd().plusDays(i));
+            em.persist(otherBooking);
+        }
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        BookingQuery query = createQuery(BookingRole.OWNER, owner.getId(), State.ALL, LocalDateTime.now());
+        //when
+        statistics.clear();
+        query.setSize(1);
+        List<BookingFullDto> smallPage = bookingRepository.findBookings(query);
+        long smallPageStatements = statistics.getPrepareStatementCount();
+        statistics.clear();
+        query.setSize(20);
+        List<BookingFullDto> fullPage = bookingRepository.findBookings(query);
+        long fullPageStatements = statistics.getPrepareStatementCount();
+        //then
+        assertThat(smallPage)
+                .hasSize(1);
+        assertThat(fullPage)
+                .hasSize(20)
+                .allMatch(x -> itemRequest.getId().equals(x.getItem().getRequestId()));
+        assertThat(smallPageStatements)
+                .isEqualTo(1);
+        assertThat(fullPageStatements)
+                .isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount())
+                .isZero();
+    }
+
+    @Test
+    void countBookings_success() {
+        //given
+        LocalDateTime now = LocalDateTime.of(2035, 1, 1, 1, 30, 1);
+        //then
+        assertThat(bookingRepository.countBookings(createQuery(BookingRole.OWNER, owner.getId(), State.ALL, now)))
+                .isEqualTo(1);
+        assertThat(bookingRepository.countBookings(createQuery(BookingRole.BOOKER, user.getId(), State.CURRENT, now)))
+                .isEqualTo(1);
+        assertThat(bookingRepository.countBookings(createQuery(BookingRole.BOOKER, user.getId(), State.FUTURE, now)))
+                .isZero();
+        assertThat(bookingRepository.countBookings(createQuery(BookingRole.BOOKER, owner.getId(), State.ALL, now)))
+                .isZero();
+    }
+
+    @Test
+    void countBookingsByState_success() {
+        //given
+        em.persist(Booking.builder()
+                .start(LocalDateTime.of(2034, 1, 1, 1, 1, 1))
+                .end(LocalDateTime.of(2034, 1, 1, 2, 1, 1))
+                .item(item)
+                .user(user)
+                .status(Status.REJECTED)
+                .build());
+        em.flush();
+        em.clear();
+        Statistics statistics = em.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        LocalDateTime now = LocalDateTime.of(2035, 1, 1, 1, 30, 1);
+        statistics.clear();
+        //when
+        Map<State, Long> ownerCounts = bookingRepository.countBookingsByState(
+                createQuery(BookingRole.OWNER, owner.getId(), State.ALL, now));
+        long statements = statistics.getPrepareStatementCount();
+        Map<State, Long> strangerCounts = bookingRepository.countBookingsByState(
+                createQuery(BookingRole.OWNER, user.getId(), State.ALL, now));
+        //then
+        assertThat(ownerCounts)
+                .containsEntry(State.ALL, 2L)
+                .containsEntry(State.CURRENT, 1L)
+                .containsEntry(State.PAST, 1L)
+                .containsEntry(State.FUTURE, 0L)
+                .containsEntry(State.WAITING, 1L)
+                .containsEntry(State.REJECTED, 1L);
+        assertThat(strangerCounts)
+                .hasSize(State.values().length)
+                .allSatisfy((state, count) -> assertThat(count).isZero());
+        assertThat(statements)
+                .isEqualTo(1);
+    }
+
+    @Test
+    void streamBookings_success() {
+        //given
+        for (int i = 1; i < 5; i++) {
+            Booking otherBooking = createBooking();
+            otherBooking.setStart(booking.getStart().plusDays(i));
+            otherBooking.setEnd(booking.getEnd().plusDays(i));
+            em.persist(otherBooking);
+        }
+        em.flush();
+        em.clear();
+        BookingQuery query = BookingQuery.builder()
+                .role(BookingRole.OWNER)
+                .userId(owner.getId())
+                .size(2)
+                .build();
+        //when
+        List<BookingFullDto> bookings;
+        try (Stream<BookingFullDto> stream = bookingRepository.streamBookings(query)) {
+            bookings = stream.collect(Collectors.toList());
+        }
+        //then
+        assertThat(bookings)
+                .hasSize(5)
+                .isSortedAccordingTo(Comparator.comparing(BookingFullDto::getStart).reversed())
+                .allMatch(x -> x.getItem() != null && user.getId().equals(x.getBooker().getId()));
+    }
+
+    @Test
+    void existsOverlappingBooking_success() {
+        //given
+        LocalDateTime start = booking.getStart();
+        LocalDateTime end = booking.getEnd();
+        //then
+        assertThat(bookingRepository.existsByItemIdAndStartBeforeAndEndAfterAndStatusNotIn(item.getId(),
+                end, start, Status.INACTIVE)).isTrue();
+        assertThat(bookingRepository.existsByItemIdAndStartBeforeAndEndAfterAndStatusNotIn(item.getId(),
+                end.plusHours(1), start.plusMinutes(30), Status.INACTIVE)).isTrue();
+        assertThat(bookingRepository.existsByItemIdAndStartBeforeAndEndAfterAndStatusNotIn(item.getId(),
+                end.plusHours(1), end, Status.INACTIVE)).isFalse();
+        assertThat(bookingRepository.existsByItemIdAndStartBeforeAndEndAfterAndStatusNotIn(item.getId(),
+                start, start.minusHours(1), Status.INACTIVE)).isFalse();
+    }
+
+    @Test
+    void existsOverlappingBooking_ignoresRejected() {
+        //given
+        booking.setStatus(Status.REJECTED);
+        em.persistAndFlush(booking);
+        //then
+        assertThat(bookingRepository.existsByItemIdAndStartBeforeAndEndAfterAndStatusNotIn(item.getId(),
+                booking.getEnd(), booking.getStart(), Status.INACTIVE)).isFalse();
+    }
+
+    @Test
+    void expireWaiting_success() {
+        //given
+        Booking approved = Booking.builder()
+                .start(booking.getStart().plusDays(1))
+                .end(booking.getEnd().plusDays(1))
+                .item(item)
+                .user(user)
+                .status(Status.APPROVED)
+                .build();
+        em.persistAndFlush(approved);
+        LocalDateTime now = approved.getStart().plusMinutes(1);
+        //when
+        List<BookingRefDto> stale = bookingRepository.findRefsForUpdateByStatusAndStartBefore(Status.WAITING, now,
+                page);
+        int expired = bookingRepository.updateStatusByIdIn(List.of(booking.getId(), approved.getId()),
+                Status.WAITING, Status.EXPIRED);
+        int expiredAgain = bookingRepository.updateStatusByIdIn(List.of(booking.getId()), Status.WAITING,
+                Status.EXPIRED);
+        em.clear();
+        //then
+        assertThat(stale)
+                .containsExactly(new BookingRefDto(booking.getId(), item.getId(), Status.WAITING));
+        assertThat(expired)
+                .isEqualTo(1);
+        assertThat(expiredAgain)
+                .isZero();
+        assertThat(bookingRepository.findById(booking.getId()).orElseThrow().getStatus())
+                .isEqualTo(Status.EXPIRED);
+        assertThat(bookingRepository.findById(approved.getId()).orElseThrow().getStatus())
+                .isEqualTo(Status.APPROVED);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void existsOverlappingBooking_benchmark() {
+        //given
+        int probes = 200;
+        int history = 1;
+        LocalDateTime start = booking.getEnd();
+        for (int size : new int[]{100, 1000, 10000}) {
+            for (; history < size; history++) {
+                em.persist(Booking.builder()
+                        .start(start.plusHours(2L * history))
+                        .end(start.plusHours(2L * history + 1))
+                        .item(item)
+                        .user(user)
+                        .status(Status.APPROVED)
+                        .build());
+            }
+            em.flush();
+            em.clear();
+            //when
+            long begin = System.nanoTime();
+            for (int i = 0; i < probes; i++) {
+                LocalDateTime probeStart = start.plusHours(2L * (i % history) + 1);
+                assertThat(bookingRepository.existsByItemIdAndStartBeforeAndEndAfterAndStatusNotIn(item.getId(),
+                        probeStart.plusHours(1), probeStart, Status.INACTIVE)).isFalse();
+            }
+            //then
+            System.out.printf("overlap probe, history %d bookings: %d us/probe%n",
+                    history, (System.nanoTime() - begin) / probes / 1000);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void findBookings_ownerBenchmark() {
+        //given
+        int probes = 200;
+        int history = 1;
+        LocalDateTime start = booking.getEnd();
+        User otherOwner = em.persist(createUser("Anna", "anna@mail.ts"));
+        Item otherItem = createItem();
+        otherItem.setOwner(otherOwner.getId());
+        em.persist(otherItem);
+        for (int size : new int[]{100, 1000, 10000}) {
+            for (; history < size; history++) {
+                em.persist(Booking.builder()
+                        .start(start.plusHours(2L * history))
+                        .end(start.plusHours(2L * history + 1))
+                        .item(history % 2 == 0 ? item : otherItem)
+                        .user(user)
+                        .status(Status.APPROVED)
+                        .build());
+            }
+            em.flush();
+            em.clear();
+            //when
+            long begin = System.nanoTime();
+            for (int i = 0; i < probes; i++) {
+                assertThat(em.getEntityManager().createQuery("select b from Booking as b join b.item as i " +
+                                "where i.owner = ?1 order by b.start desc", Booking.class)
+                        .setParameter(1, owner.getId())
+                        .setMaxResults(page.getPageSize())
+                        .getResultList()).hasSize(page.getPageSize());
+            }
+            long joinElapsed = System.nanoTime() - begin;
+            begin = System.nanoTime();
+            for (int i = 0; i < probes; i++) {
+                assertThat(bookingRepository.findBookings(createQuery(BookingRole.OWNER, owner.getId(), State.ALL,
+                        LocalDateTime.now()))).hasSize(page.getPageSize());
+            }
+            long ownerIdElapsed = System.nanoTime() - begin;
+            //then
+            System.out.printf("owner list, history %d bookings: join on item %d us/page, owner_id %d us/page%n",
+                    history, joinElapsed / probes / 1000, ownerIdElapsed / probes / 1000);
+        }
+    }
+
+    @Test
+    void persist_success_ownerIdCopiedFromItem() {
+        //given
+        em.flush();
+        em.clear();
+        //then
+        assertThat(em.find(Booking.class, booking.getId()).getOwnerId())
+                .isEqualTo(item.getOwner());
+        assertThat(bookingRepository.countBookings(createQuery(BookingRole.OWNER, item.getOwner(), State.ALL,
+                LocalDateTime.now())))
+                .isEqualTo(1);
+    }
+
+    @Test
+    void findBookingHeadsForUpdate_success_oldestPendingEventPerBooking() {
+        //given
+        BookingEvent published = createEvent(1L, BookingEventType.CREATED, 0);
+        published.setPublished(LocalDateTime.now());
+        em.persist(published);
+        BookingEvent approved = em.persist(createEvent(1L, BookingEventType.APPROVED, 0));
+        em.persist(createEvent(2L, BookingEventType.CREATED, 3));
+        em.persist(createEvent(2L, BookingEventType.APPROVED, 0));
+        BookingEvent created = em.persist(createEvent(3L, BookingEventType.CREATED, 1));
+        em.persist(createEvent(3L, BookingEventType.CANCELED, 0));
+        //when
+        List<BookingEvent> heads = bookingEventRepository.findBookingHeadsForUpdate(3, page);
+        //then
+        assertThat(heads)
+                .containsExactly(approved, created);
+    }
+
     private User createUser(String userName, String userEmail) {
         return User.builder()
                 .name(userName)
@@ -220,10 +581,30 @@ public class TestBookingJpa {
                 .build();
     }
 
+    private BookingQuery createQuery(BookingRole role, Long userId, State state, LocalDateTime now) {
+        return BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .state(state)
+                .now(now)
+                .size(page.getPageSize())
+                .build();
+    }
+
+    private BookingEvent createEvent(Long bookingId, BookingEventType type, int attempts) {
+        return BookingEvent.builder()
+                .bookingId(bookingId)
+                .itemId(item.getId())
+                .type(type)
+                .created(LocalDateTime.now())
+                .attempts(attempts)
+                .build();
+    }
+
     private Booking createBooking() {
         return Booking.builder()
-                .start(LocalDateTime.of(2025, 1, 1, 1, 1, 1))
-                .end(LocalDateTime.of(2025, 1, 1, 2, 1, 1))
+                .start(LocalDateTime.of(2035, 1, 1, 1, 1, 1))
+                .end(LocalDateTime.of(2035, 1, 1, 2, 1, 1))
                 .item(item)
                 .user(user)
                 .status(Status.WAITING)
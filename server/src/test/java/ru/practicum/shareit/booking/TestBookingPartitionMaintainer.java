@@ -0,0 +1,52 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestBookingPartitionMaintainer {
+    @Mock
+    private BookingRepository bookingRepository;
+    private BookingPartitionMaintainer bookingPartitionMaintainer;
+    private int currentYear;
+
+    @BeforeEach
+    private void init() {
+        bookingPartitionMaintainer = new BookingPartitionMaintainer(bookingRepository, 2);
+        currentYear = LocalDate.now().getYear();
+    }
+
+    @Test
+    void createUpcoming_success() {
+        //given
+        when(bookingRepository.createYearPartition(currentYear + 2)).thenReturn(true);
+        //when
+        int created = bookingPartitionMaintainer.createUpcoming();
+        //then
+        assertThat(created)
+                .isEqualTo(1);
+        InOrder inOrder = inOrder(bookingRepository);
+        inOrder.verify(bookingRepository).createYearPartition(currentYear);
+        inOrder.verify(bookingRepository).createYearPartition(currentYear + 1);
+        inOrder.verify(bookingRepository).createYearPartition(currentYear + 2);
+        verifyNoMoreInteractions(bookingRepository);
+    }
+
+    @Test
+    void createUpcoming_success_allPresent() {
+        //when
+        int created = bookingPartitionMaintainer.createUpcoming();
+        //then
+        assertThat(created)
+                .isEqualTo(0);
+        verify(bookingRepository, times(3)).createYearPartition(anyInt());
+    }
+}
@@ -1,17 +1,21 @@
 package ru.practicum.shareit.booking;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingFullDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingRefDto;
+import ru.practicum.shareit.booking.model.ApprovalResult;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.error.EntityNotFoundException;
@@ -24,10 +28,14 @@ import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.ApproximateCounter;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -41,6 +49,8 @@ public class TestBookingServiceImp {
     private UserRepository userRepository;
     @Mock
     private BookingRepository bookingRepository;
+    @Mock
+    private BookingEventRepository bookingEventRepository;
     private BookingService bookingService;
     private User user;
     private Item item;
@@ -51,7 +61,9 @@ public class TestBookingServiceImp {
 
     @BeforeEach
     private void init() {
-        bookingService = new BookingServiceImp(itemRepository, userRepository, bookingRepository);
+        bookingService = new BookingServiceImp(itemRepository, userRepository, bookingRepository,
+                new BookingIntervalIndex(bookingRepository), new ApproximateCounter(Duration.ofSeconds(30)),
+                bookingEventRepository, new BookingViewCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5)));
         user = createUser("Ken", "eken@mail.ts");
         user.setId(1L);
         item = createItem();
@@ -65,7 +77,7 @@ public class TestBookingServiceImp {
         //given
         BookingFullDto bookingFullDto = createBookingFullDto();
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
         when(bookingRepository.findByItemIdOrderByStartDesc(anyLong())).thenReturn(new ArrayList<>());
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
         //when
@@ -88,7 +100,7 @@ public class TestBookingServiceImp {
     @Test
     void addBooking_failure_startAfterEnd() {
         //given
-        LocalDateTime startAfterEnd = LocalDateTime.of(2026, 1, 1, 1, 1, 1);
+        LocalDateTime startAfterEnd = LocalDateTime.of(2036, 1, 1, 1, 1, 1);
         //when
         bookingDto.setStart(startAfterEnd);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
@@ -103,7 +115,7 @@ public class TestBookingServiceImp {
         //when
         bookingDto.setItemId(nonExistingItemId);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenThrow(EntityNotFoundException.class);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenThrow(EntityNotFoundException.class);
         //then
         assertThrows(EntityNotFoundException.class, () -> bookingService.addBooking(bookingDto, user.getId()));
     }
@@ -115,7 +127,7 @@ public class TestBookingServiceImp {
         //when
         bookingDto.setBookerId(ownerId);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
         //then
         assertThrows(UserMissMatchException.class, () -> bookingService.addBooking(bookingDto, ownerId));
     }
@@ -127,7 +139,7 @@ public class TestBookingServiceImp {
         //when
         item.setAvailable(itemNotAvailable);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
         //then
         assertThrows(ResponseStatusException.class, () -> bookingService.addBooking(bookingDto, user.getId()));
     }
@@ -146,25 +158,73 @@ public class TestBookingServiceImp {
         //given
         Booking intersetionBooking = Booking.builder()
                 .id(2L)
-                .start(LocalDateTime.of(2025, 1, 1, 0, 1, 1))
-                .end(LocalDateTime.of(2025, 1, 1, 1, 2, 1))
+                .start(LocalDateTime.of(2035, 1, 1, 0, 1, 1))
+                .end(LocalDateTime.of(2035, 1, 1, 1, 2, 1))
                 .item(item)
                 .user(user)
                 .status(Status.APPROVED)
                 .build();
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
         //when
         when(bookingRepository.findByItemIdOrderByStartDesc(anyLong())).thenReturn(List.of(intersetionBooking));
         //then
         assertThrows(TimeOverlapException.class, () -> bookingService.addBooking(bookingDto, user.getId()));
     }
 
+    @Test
+    void addBookings_success() {
+        //given
+        BookingDto secondBookingDto = createBookingDto();
+        secondBookingDto.setStart(bookingDto.getEnd());
+        secondBookingDto.setEnd(bookingDto.getEnd().plusHours(1));
+        Booking secondBooking = BookingMapper.toBooking(secondBookingDto, item, user);
+        secondBooking.setId(2L);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(item));
+        when(bookingRepository.findByItemIdOrderByStartDesc(anyLong())).thenReturn(new ArrayList<>());
+        when(bookingRepository.saveAll(anyList())).thenReturn(List.of(booking, secondBooking));
+        //when
+        List<BookingFullDto> addedBookings = bookingService.addBookings(List.of(bookingDto, secondBookingDto),
+                user.getId());
+        //then
+        assertThat(addedBookings)
+                .hasSize(2)
+                .containsExactly(BookingMapper.toBookingDtoFull(booking), BookingMapper.toBookingDtoFull(secondBooking));
+        verify(itemRepository, times(1)).findAllByIdForUpdate(anyCollection());
+        verify(bookingRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void addBookings_failure_overlapWithinBatch() {
+        //given
+        BookingDto secondBookingDto = createBookingDto();
+        secondBookingDto.setStart(bookingDto.getStart().plusMinutes(30));
+        secondBookingDto.setEnd(bookingDto.getEnd().plusMinutes(30));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of(item));
+        when(bookingRepository.findByItemIdOrderByStartDesc(anyLong())).thenReturn(new ArrayList<>());
+        //then
+        assertThrows(TimeOverlapException.class,
+                () -> bookingService.addBookings(List.of(bookingDto, secondBookingDto), user.getId()));
+        verify(bookingRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void addBookings_failure_noItem() {
+        //given
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(itemRepository.findAllByIdForUpdate(anyCollection())).thenReturn(List.of());
+        //then
+        assertThrows(EntityNotFoundException.class,
+                () -> bookingService.addBookings(List.of(bookingDto), user.getId()));
+    }
+
     @Test
     void addBooking_failure_userIsAnOwner() {
         //given
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
         //when
         item.setOwner(user.getId());
         //then
@@ -175,7 +235,7 @@ public class TestBookingServiceImp {
     void getBooking_success() {
         //given
         BookingFullDto bookingFullDto = createBookingFullDto();
-        when(bookingRepository.findById(1L)).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(1L)).thenReturn(Optional.of(booking));
         //when
         BookingFullDto returnedBookingFullDto = bookingService.getBooking(booking.getId(), user.getId());
         //then
@@ -185,6 +245,37 @@ public class TestBookingServiceImp {
                 .isEqualTo(bookingFullDto);
     }
 
+    @Test
+    void getBooking_success_cached() {
+        //given
+        when(bookingRepository.findDetailedById(1L)).thenReturn(Optional.of(booking));
+        Long ownerId = item.getOwner();
+        //when
+        BookingFullDto bookerView = bookingService.getBooking(booking.getId(), user.getId());
+        BookingFullDto ownerView = bookingService.getBooking(booking.getId(), ownerId);
+        //then
+        assertThat(ownerView)
+                .isEqualTo(bookerView);
+        assertThrows(EntityNotFoundException.class, () -> bookingService.getBooking(booking.getId(), 3L));
+        verify(bookingRepository, times(1)).findDetailedById(booking.getId());
+    }
+
+    @Test
+    void getBooking_success_invalidatedByUpdate() {
+        //given
+        Long ownerId = item.getOwner();
+        when(bookingRepository.findDetailedById(1L)).thenReturn(Optional.of(booking));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(createUser("Peter", "iown@mail.ts")));
+        bookingService.getBooking(booking.getId(), user.getId());
+        //when
+        bookingService.updateBooking(ownerId, booking.getId(), Boolean.FALSE);
+        BookingFullDto rejected = bookingService.getBooking(booking.getId(), user.getId());
+        //then
+        assertThat(rejected.getStatus())
+                .isEqualTo(Status.REJECTED);
+        verify(bookingRepository, times(3)).findDetailedById(booking.getId());
+    }
+
     @Test
     void getBooking_failure_wrongBookingId() {
         //when
@@ -216,8 +307,8 @@ public class TestBookingServiceImp {
         BookingDto bookingDto = createBookingDto();
         Booking booking = BookingMapper.toBooking(bookingDto, item, user);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(bookingRepository.findAllOwnerBookingsOrderByStartDesc(ownerId, page)).thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(any(BookingQuery.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         //when
         List<BookingFullDto> ownerBookings = bookingService.getOwnerBookings(ownerId, defaultFrom, defaultSize);
         //then
@@ -236,14 +327,61 @@ public class TestBookingServiceImp {
                 () -> bookingService.getOwnerBookings(wrongId, defaultFrom, defaultSize));
     }
 
+    @Test
+    void exportBookings_success() {
+        //given
+        BookingFullDto bookingFullDto = BookingMapper.toBookingDtoFull(booking);
+        List<BookingFullDto> exported = new ArrayList<>();
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.streamBookings(argThat(x -> x.getRole() == BookingRole.BOOKER
+                && x.getUserId().equals(user.getId()) && x.getSize() > 0)))
+                .thenReturn(Stream.of(bookingFullDto, bookingFullDto));
+        //when
+        bookingService.exportBookings(user.getId(), BookingRole.BOOKER, exported::add);
+        //then
+        assertThat(exported)
+                .containsExactly(bookingFullDto, bookingFullDto);
+    }
+
+    @Test
+    void exportBookings_failure_userNotFound() {
+        //then
+        assertThrows(EntityNotFoundException.class,
+                () -> bookingService.exportBookings(-999L, BookingRole.OWNER, x -> { }));
+        verify(bookingRepository, never()).streamBookings(any());
+    }
+
+    @Test
+    void getOwnerBookingSummary_success() {
+        //given
+        Long ownerId = 2L;
+        Map<State, Long> counts = Map.of(State.ALL, 1L, State.WAITING, 1L);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(bookingRepository.countBookingsByState(argThat(x -> x.getRole() == BookingRole.OWNER
+                && x.getUserId().equals(ownerId) && x.getNow() != null)))
+                .thenReturn(counts);
+        //when
+        Map<State, Long> summary = bookingService.getOwnerBookingSummary(ownerId);
+        //then
+        assertThat(summary)
+                .isEqualTo(counts);
+    }
+
+    @Test
+    void getOwnerBookingSummary_failure_userNotFound() {
+        //then
+        assertThrows(EntityNotFoundException.class, () -> bookingService.getOwnerBookingSummary(-999L));
+        verify(bookingRepository, never()).countBookingsByState(any());
+    }
+
     @Test
     void getOwnerBookingsWithState_success_WAITING() {
         //given
         Long ownerId = 2L;
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(bookingRepository.findAllOwnerBookingsAndStatus(ownerId, Status.WAITING, page))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(argThat(x -> x.getRole() == BookingRole.OWNER
+                && x.getState() == State.WAITING && x.getUserId().equals(ownerId) && x.getNow() != null)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         //when
         List<BookingFullDto> ownerBookings = bookingService.getOwnerBookingsWithState(ownerId, State.WAITING,
                 defaultFrom, defaultSize);
@@ -261,8 +399,8 @@ public class TestBookingServiceImp {
         //given
         Long ownerId = 2L;
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(bookingRepository.findAllOwnerBookings(ownerId, page)).thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(any(BookingQuery.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         //when
         List<BookingFullDto> ownerBookings = bookingService.getOwnerBookingsWithState(ownerId, State.ALL,
                 defaultFrom, defaultSize);
@@ -281,9 +419,8 @@ public class TestBookingServiceImp {
         Long ownerId = 2L;
         booking.setStatus(Status.APPROVED);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(bookingRepository.findByOwnerIdAndEndBefore(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(any(BookingQuery.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         //when
         List<BookingFullDto> ownerBookings = bookingService.getOwnerBookingsWithState(ownerId, State.PAST,
                 defaultFrom, defaultSize);
@@ -302,9 +439,8 @@ public class TestBookingServiceImp {
         Long ownerId = 2L;
         booking.setStatus(Status.APPROVED);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(bookingRepository.findByOwnerIdAndStartAfter(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(any(BookingQuery.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         //when
         List<BookingFullDto> ownerBookings = bookingService.getOwnerBookingsWithState(ownerId, State.FUTURE,
                 defaultFrom, defaultSize);
@@ -323,9 +459,8 @@ public class TestBookingServiceImp {
         Long ownerId = 2L;
         booking.setStatus(Status.APPROVED);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(bookingRepository.findByOwnerIdAndTimeCurrent(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(any(BookingQuery.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         //when
         List<BookingFullDto> ownerBookings = bookingService.getOwnerBookingsWithState(ownerId, State.CURRENT,
                 defaultFrom, defaultSize);
@@ -343,11 +478,10 @@ public class TestBookingServiceImp {
         //given
         Long ownerId = 2L;
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
         //when
         booking.setStatus(Status.REJECTED);
-        when(bookingRepository.findAllOwnerBookingsOrderByStartDesc(ownerId, page))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(any(BookingQuery.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         List<BookingFullDto> ownerBookings = bookingService.getOwnerBookings(ownerId, defaultFrom, defaultSize);
         //then
         assertThat(ownerBookings)
@@ -362,8 +496,8 @@ public class TestBookingServiceImp {
     void getUserBookings_success() {
         //given
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(bookingRepository.findByUserIdOrderByStartDesc(user.getId(), page)).thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(any(BookingQuery.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         //when
         List<BookingFullDto> ownerBookings = bookingService.getUserBookings(user.getId(), defaultFrom, defaultSize);
         //then
@@ -386,8 +520,8 @@ public class TestBookingServiceImp {
     void getUserBookingsWithState_success_WAITING() {
         //given
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(bookingRepository.findAllOwnerBookingsOrderByStartDesc(user.getId(), page)).thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(any(BookingQuery.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         //when
         List<BookingFullDto> ownerBookings = bookingService.getOwnerBookings(user.getId(), defaultFrom, defaultSize);
         //then
@@ -403,10 +537,10 @@ public class TestBookingServiceImp {
     void getUserBookingsWithState_success_REJECTED() {
         //given
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
         //when
         booking.setStatus(Status.REJECTED);
-        when(bookingRepository.findAllOwnerBookingsOrderByStartDesc(user.getId(), page)).thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(any(BookingQuery.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         List<BookingFullDto> ownerBookings = bookingService.getOwnerBookings(user.getId(), defaultFrom, defaultSize);
         //then
         assertThat(ownerBookings)
@@ -421,8 +555,8 @@ public class TestBookingServiceImp {
     void getUserBookingsWithState_success_ALL() {
         //given
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(bookingRepository.findByUserId(user.getId(), page)).thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(any(BookingQuery.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         //when
         List<BookingFullDto> ownerBookings = bookingService.getUserBookingsWithState(user.getId(), State.ALL, defaultFrom,
                 defaultSize);
@@ -439,9 +573,8 @@ public class TestBookingServiceImp {
     void getUserBookingsWithState_success_PAST() {
         //given
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(bookingRepository.findByUserIdAndEndBefore(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(any(BookingQuery.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         //when
         List<BookingFullDto> ownerBookings = bookingService.getUserBookingsWithState(user.getId(), State.PAST, defaultFrom,
                 defaultSize);
@@ -458,9 +591,8 @@ public class TestBookingServiceImp {
     void getUserBookingsWithState_success_FUTURE() {
         //given
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(bookingRepository.findByUserIdAndStartAfter(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(any(BookingQuery.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         //when
         List<BookingFullDto> ownerBookings = bookingService.getUserBookingsWithState(user.getId(), State.FUTURE, defaultFrom,
                 defaultSize);
@@ -477,9 +609,8 @@ public class TestBookingServiceImp {
     void getUserBookingsWithState_success_CURRENT() {
         //given
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(bookingRepository.findByUserIdAndTimeCurrent(anyLong(), any(), any()))
-                .thenReturn(new PageImpl<>(List.of(booking)));
+        when(bookingRepository.findBookings(any(BookingQuery.class)))
+                .thenReturn(List.of(BookingMapper.toBookingDtoFull(booking)));
         //when
         List<BookingFullDto> ownerBookings = bookingService.getUserBookingsWithState(user.getId(), State.CURRENT, defaultFrom,
                 defaultSize);
@@ -497,7 +628,7 @@ public class TestBookingServiceImp {
         //given
         Long ownerId = 2L;
         BookingFullDto bookingFullDto = createBookingFullDto();
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(anyLong())).thenReturn(Optional.of(booking));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(createUser("Peter", "iown@mail.ts")));
         when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
         //when
@@ -508,12 +639,14 @@ public class TestBookingServiceImp {
         assertThat(approvedBooking)
                 .isNotNull()
                 .isEqualTo(bookingFullDto);
+        verify(bookingEventRepository, times(1)).save(argThat(x -> x.getType() == BookingEventType.APPROVED
+                && x.getBookingId().equals(booking.getId())));
     }
 
     @Test
     void updateBooking_failure_userIsNotOwner() {
         //given
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(anyLong())).thenReturn(Optional.of(booking));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         //when
         Boolean approved = Boolean.TRUE;
@@ -527,7 +660,7 @@ public class TestBookingServiceImp {
     void updateBooking_failure_wrongCurrentStatus() {
         //given
         Long ownerId = 2L;
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
+        when(bookingRepository.findDetailedById(anyLong())).thenReturn(Optional.of(booking));
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(createUser("Peter", "iown@mail.ts")));
         //when
         Boolean approved = Boolean.TRUE;
@@ -537,6 +670,58 @@ public class TestBookingServiceImp {
                 approved));
     }
 
+    @Test
+    void updateBooking_failure_closedBooking() {
+        //given
+        Long ownerId = 2L;
+        when(bookingRepository.findDetailedById(anyLong())).thenReturn(Optional.of(booking));
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(createUser("Peter", "iown@mail.ts")));
+        for (Status status : Status.CLOSED) {
+            //when
+            booking.setStatus(status);
+            //then
+            assertThrows(UnsupportedStatusException.class, () -> bookingService.updateBooking(ownerId,
+                    booking.getId(), Boolean.TRUE));
+            assertThrows(UnsupportedStatusException.class, () -> bookingService.updateBooking(ownerId,
+                    booking.getId(), Boolean.FALSE));
+            assertThat(booking.getStatus())
+                    .isEqualTo(status);
+        }
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verifyNoInteractions(bookingEventRepository);
+    }
+
+    @Test
+    void updateBookings_success() {
+        //given
+        Long ownerId = 2L;
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(createUser("Peter", "iown@mail.ts")));
+        when(bookingRepository.findRefsForUpdateByIdInAndOwnerId(anyCollection(), anyLong()))
+                .thenReturn(List.of(new BookingRefDto(1L, 1L, Status.WAITING),
+                        new BookingRefDto(2L, 1L, Status.APPROVED)));
+        //when
+        List<BookingApprovalResultDto> results = bookingService.updateBookings(ownerId, List.of(1L, 2L, 3L, 1L),
+                Boolean.FALSE);
+        //then
+        assertThat(results)
+                .containsExactly(new BookingApprovalResultDto(1L, ApprovalResult.REJECTED),
+                        new BookingApprovalResultDto(2L, ApprovalResult.WRONG_STATUS),
+                        new BookingApprovalResultDto(3L, ApprovalResult.NOT_FOUND));
+        verify(bookingRepository, times(1)).findRefsForUpdateByIdInAndOwnerId(List.of(1L, 2L, 3L), ownerId);
+        verify(bookingRepository, times(1)).updateStatusByIdIn(List.of(1L), Status.WAITING, Status.REJECTED);
+        verify(bookingEventRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    void updateBookings_failure_userNotFound() {
+        //given
+        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        //then
+        assertThrows(EntityNotFoundException.class, () -> bookingService.updateBookings(1L, List.of(1L),
+                Boolean.TRUE));
+        verify(bookingRepository, never()).updateStatusByIdIn(anyCollection(), any(Status.class), any(Status.class));
+    }
+
     @Test
     void cancelBooking_success() {
         //given
@@ -550,6 +735,7 @@ public class TestBookingServiceImp {
         assertThat(booking.getStatus())
                 .isNotNull()
                 .isEqualTo(Status.CANCELED);
+        verify(bookingEventRepository, times(1)).save(argThat(x -> x.getType() == BookingEventType.CANCELED));
     }
 
     @Test
@@ -585,6 +771,23 @@ public class TestBookingServiceImp {
         assertThrows(EntityNotFoundException.class, () -> bookingService.deleteBooking(wrongId));
     }
 
+    @Test
+    void countUserBookings_cached() {
+        //given
+        when(bookingRepository.countBookings(argThat(x -> x.getRole() == BookingRole.BOOKER
+                && x.getState() == State.PAST && x.getUserId().equals(user.getId()))))
+                .thenReturn(3L);
+        //when
+        long firstCount = bookingService.countUserBookings(user.getId(), State.PAST);
+        long secondCount = bookingService.countUserBookings(user.getId(), State.PAST);
+        //then
+        assertThat(firstCount)
+                .isEqualTo(3L);
+        assertThat(secondCount)
+                .isEqualTo(3L);
+        verify(bookingRepository, times(1)).countBookings(any());
+    }
+
     private UserDto createUserDto() {
         return UserDto.builder()
                 .id(1L)
@@ -604,8 +807,8 @@ public class TestBookingServiceImp {
 
     private BookingDto createBookingDto() {
         return BookingDto.builder()
-                .start(LocalDateTime.of(2025, 1, 1, 1, 1, 1))
-                .end(LocalDateTime.of(2025, 1, 1, 2, 1, 1))
+                .start(LocalDateTime.of(2035, 1, 1, 1, 1, 1))
+                .end(LocalDateTime.of(2035, 1, 1, 2, 1, 1))
                 .itemId(1L)
                 .bookerId(1L)
                 .build();
@@ -614,8 +817,8 @@ public class TestBookingServiceImp {
     private BookingFullDto createBookingFullDto() {
         return BookingFullDto.builder()
                 .id(1L)
-                .start(LocalDateTime.of(2025, 1, 1, 1, 1, 1))
-                .end(LocalDateTime.of(2025, 1, 1, 2, 1, 1))
+                .start(LocalDateTime.of(2035, 1, 1, 1, 1, 1))
+                .end(LocalDateTime.of(2035, 1, 1, 2, 1, 1))
                 .item(createItemDto())
                 .booker(createUserDto())
                 .status(Status.WAITING)
@@ -1,26 +1,33 @@
 package ru.practicum.shareit.booking;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingApprovalResultDto;
+import ru.practicum.shareit.booking.dto.BookingCursor;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingFullDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.model.ApprovalResult;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
 import ru.practicum.shareit.booking.model.Status;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.item.ItemService;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.UserService;
@@ -28,6 +35,7 @@ import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 @Transactional
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
@@ -35,7 +43,10 @@ import static org.assertj.core.api.Assertions.assertThat;
         properties = { "spring.datasource.driverClassName=org.h2.Driver",
                 "spring.datasource.url=jdbc:h2:mem:shareit",
                 "spring.datasource.username=test",
-                "spring.datasource.password=test"}
+                "spring.datasource.password=test",
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                "shareit.booking.outbox.interval=PT1H",
+                "shareit.booking.expiry.interval=PT1H"}
 )
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class TestBookingServiceInt {
@@ -46,6 +57,8 @@ public class TestBookingServiceInt {
     private final BookingService bookingService;
     private final UserService userService;
     private final ItemService itemService;
+    private final BookingArchiver bookingArchiver;
+    private final BookingEventPublisher bookingEventPublisher;
     private Booking booking;
     private BookingDto bookingDto;
     private User user;
@@ -83,13 +96,35 @@ public class TestBookingServiceInt {
                 .isEqualTo(booking);
     }
 
+    @Test
+    void addBookings_success() {
+        //given
+        BookingDto secondBookingDto = createBookingDto();
+        secondBookingDto.setStart(bookingDto.getEnd());
+        secondBookingDto.setEnd(bookingDto.getEnd().plusHours(1));
+        //when
+        List<BookingFullDto> addedBookings = bookingService.addBookings(List.of(bookingDto, secondBookingDto),
+                user.getId());
+        List<Booking> queryBookings = entityManager.createQuery("SELECT b FROM Booking b order by b.id", Booking.class)
+                .getResultList();
+        //then
+        assertThat(addedBookings)
+                .hasSize(2);
+        assertThat(queryBookings.stream()
+                .map(x -> BookingMapper.toBookingDtoFull(x))
+                .collect(Collectors.toList()))
+                .isEqualTo(addedBookings);
+    }
+
     @Test
     void getBooking_success() {
         //given
         bookingService.addBooking(bookingDto, user.getId());
         BookingFullDto bookingFullDto = createBookingFullDto();
+        Statistics statistics = resetStatistics();
         //when
         BookingFullDto returnedBookingFullDto = bookingService.getBooking(booking.getId(), user.getId());
+        long statements = statistics.getPrepareStatementCount();
         Booking queryBooking = entityManager.createQuery("SELECT b FROM Booking b where b.id = :id", Booking.class)
                 .setParameter("id", booking.getId())
                 .getSingleResult();
@@ -100,6 +135,31 @@ public class TestBookingServiceInt {
                 .isEqualTo(bookingFullDto);
         assertThat(returnedBookingFullDto)
                 .isEqualTo(BookingMapper.toBookingDtoFull(queryBooking));
+        assertThat(statements)
+                .isEqualTo(1);
+    }
+
+    @Test
+    void getBooking_success_cachedViewFollowsItemAndUserUpdates() {
+        //given
+        bookingService.addBooking(bookingDto, user.getId());
+        bookingService.getBooking(booking.getId(), user.getId());
+        Statistics statistics = resetStatistics();
+        BookingFullDto cached = bookingService.getBooking(booking.getId(), user.getId());
+        long cachedStatements = statistics.getPrepareStatementCount();
+        //when
+        itemService.updateItem(owner.getId(), ItemDto.builder().name("renamed thing").build(), item.getId());
+        userService.updateUser(user.getId(), UserDto.builder().name("Kenny").build());
+        BookingFullDto updated = bookingService.getBooking(booking.getId(), user.getId());
+        //then
+        assertThat(cachedStatements)
+                .isEqualTo(0);
+        assertThat(cached.getItem().getName())
+                .isEqualTo("thing");
+        assertThat(updated.getItem().getName())
+                .isEqualTo("renamed thing");
+        assertThat(updated.getBooker().getName())
+                .isEqualTo("Kenny");
     }
 
     @Test
@@ -226,6 +286,39 @@ public class TestBookingServiceInt {
                 .isEqualTo(queryBookingsFullDto.get(0));
     }
 
+    @Test
+    void getBookingsAfterCursor_success() {
+        //given
+        for (int i = 0; i < 5; i++) {
+            bookingDto.setStart(bookingDto.getStart().plusHours(2));
+            bookingDto.setEnd(bookingDto.getEnd().plusHours(2));
+            bookingService.addBooking(bookingDto, user.getId());
+        }
+        List<BookingFullDto> allBookings = bookingService.getUserBookings(user.getId(), defaultFrom, defaultSize);
+        //when
+        List<BookingFullDto> userBookings = new ArrayList<>();
+        List<BookingFullDto> ownerBookings = new ArrayList<>();
+        BookingCursor userCursor = null;
+        BookingCursor ownerCursor = null;
+        for (int i = 0; i < 3; i++) {
+            List<BookingFullDto> userPage = bookingService.getUserBookingsAfter(user.getId(), State.ALL, userCursor, 2);
+            List<BookingFullDto> ownerPage = bookingService.getOwnerBookingsAfter(owner.getId(), State.ALL, ownerCursor, 2);
+            userBookings.addAll(userPage);
+            ownerBookings.addAll(ownerPage);
+            userCursor = BookingCursor.of(userPage.get(userPage.size() - 1));
+            ownerCursor = BookingCursor.of(ownerPage.get(ownerPage.size() - 1));
+        }
+        //then
+        assertThat(allBookings)
+                .hasSize(5);
+        assertThat(userBookings)
+                .isEqualTo(allBookings);
+        assertThat(ownerBookings)
+                .isEqualTo(allBookings);
+        assertThat(bookingService.getUserBookingsAfter(user.getId(), State.ALL, userCursor, 2))
+                .isEmpty();
+    }
+
     @Test
     void deleteBooking_success() {
         //given
@@ -245,14 +338,19 @@ public class TestBookingServiceInt {
         //given
         Long bookingId = 1L;
         bookingService.addBooking(bookingDto, user.getId());
+        Statistics statistics = resetStatistics();
         //when
         Booking queryBooking = entityManager.createQuery("SELECT b FROM Booking b where b.id = :id", Booking.class)
                 .setParameter("id", bookingId)
                 .getSingleResult();
+        statistics.clear();
         BookingFullDto updatedBookingFullDto = bookingService.updateBooking(owner.getId(), bookingId, Boolean.TRUE);
+        long statements = statistics.getPrepareStatementCount();
         //then
         assertThat(BookingMapper.toBookingDtoFull(queryBooking))
                 .isEqualTo(updatedBookingFullDto);
+        assertThat(statements)
+                .isEqualTo(2);
     }
 
     @Test
@@ -273,6 +371,108 @@ public class TestBookingServiceInt {
                 .isEqualTo(Status.CANCELED);
     }
 
+    @Test
+    void updateBookings_success() {
+        //given
+        BookingDto secondBookingDto = createBookingDto();
+        secondBookingDto.setStart(bookingDto.getEnd());
+        secondBookingDto.setEnd(bookingDto.getEnd().plusHours(1));
+        bookingService.addBookings(List.of(bookingDto, secondBookingDto), user.getId());
+        bookingService.cancelBooking(user.getId(), 2L);
+        //when
+        List<BookingApprovalResultDto> results = bookingService.updateBookings(owner.getId(),
+                List.of(1L, 2L, 99L), Boolean.TRUE);
+        entityManager.clear();
+        //then
+        assertThat(results)
+                .extracting(BookingApprovalResultDto::getBookingId, BookingApprovalResultDto::getResult)
+                .containsExactly(tuple(1L, ApprovalResult.APPROVED),
+                        tuple(2L, ApprovalResult.WRONG_STATUS),
+                        tuple(99L, ApprovalResult.NOT_FOUND));
+        assertThat(entityManager.find(Booking.class, 1L).getStatus())
+                .isEqualTo(Status.APPROVED);
+        assertThat(entityManager.find(Booking.class, 2L).getStatus())
+                .isEqualTo(Status.CANCELED);
+    }
+
+    @Test
+    void updateBookings_success_notOwner() {
+        //given
+        bookingService.addBooking(bookingDto, user.getId());
+        //when
+        List<BookingApprovalResultDto> results = bookingService.updateBookings(user.getId(), List.of(1L),
+                Boolean.FALSE);
+        entityManager.clear();
+        //then
+        assertThat(results)
+                .extracting(BookingApprovalResultDto::getResult)
+                .containsExactly(ApprovalResult.NOT_FOUND);
+        assertThat(entityManager.find(Booking.class, 1L).getStatus())
+                .isEqualTo(Status.WAITING);
+    }
+
+    @Test
+    void itemBookingSummary_success() {
+        //given
+        BookingDto secondBookingDto = createBookingDto();
+        secondBookingDto.setStart(bookingDto.getEnd());
+        secondBookingDto.setEnd(bookingDto.getEnd().plusHours(1));
+        bookingService.addBookings(List.of(secondBookingDto, bookingDto), user.getId());
+        //when
+        int published = bookingEventPublisher.publish();
+        ItemWithBookingsDto beforeReject = itemService.getItem(owner.getId(), item.getId());
+        bookingService.updateBooking(owner.getId(), beforeReject.getNextBooking().getId(), false);
+        bookingEventPublisher.publish();
+        ItemWithBookingsDto afterReject = itemService.getItem(owner.getId(), item.getId());
+        //then
+        assertThat(published)
+                .isEqualTo(2);
+        assertThat(beforeReject.getNextBooking().getId())
+                .isEqualTo(2L);
+        assertThat(beforeReject.getNextBooking().getBookerId())
+                .isEqualTo(user.getId());
+        assertThat(afterReject.getNextBooking().getId())
+                .isEqualTo(1L);
+        assertThat(afterReject.getLastBooking())
+                .isNull();
+    }
+
+    @Test
+    void archiveBookings_success() {
+        //given
+        bookingService.addBooking(bookingDto, user.getId());
+        LocalDateTime longAgo = LocalDateTime.now().minusYears(3).withNano(0);
+        Booking oldBooking = Booking.builder()
+                .start(longAgo)
+                .end(longAgo.plusDays(1))
+                .item(entityManager.find(Item.class, item.getId()))
+                .user(entityManager.find(User.class, user.getId()))
+                .status(Status.APPROVED)
+                .build();
+        entityManager.persist(oldBooking);
+        //when
+        int archived = bookingArchiver.archive();
+        List<Booking> liveBookings = entityManager.createQuery("SELECT b FROM Booking b", Booking.class)
+                .getResultList();
+        //then
+        assertThat(archived)
+                .isEqualTo(1);
+        assertThat(liveBookings)
+                .extracting(Booking::getId)
+                .containsExactly(booking.getId());
+        assertThat(bookingService.getBooking(oldBooking.getId(), owner.getId()).getStart())
+                .isEqualTo(longAgo);
+        assertThat(bookingService.getUserBookingsWithState(user.getId(), State.PAST, defaultFrom, defaultSize))
+                .extracting(BookingFullDto::getId)
+                .containsExactly(oldBooking.getId());
+        assertThat(bookingService.getUserBookingsWithState(user.getId(), State.ALL, defaultFrom, defaultSize))
+                .extracting(BookingFullDto::getId)
+                .containsExactly(booking.getId(), oldBooking.getId());
+        assertThat(bookingService.getUserBookingsWithState(user.getId(), State.FUTURE, defaultFrom, defaultSize))
+                .extracting(BookingFullDto::getId)
+                .containsExactly(booking.getId());
+    }
+
     private UserDto createUserDto() {
         return UserDto.builder()
                 .id(1L)
@@ -292,8 +492,8 @@ public class TestBookingServiceInt {
 
     private BookingDto createBookingDto() {
         return BookingDto.builder()
-                .start(LocalDateTime.of(2025, 1, 1, 1, 1, 1))
-                .end(LocalDateTime.of(2025, 1, 1, 2, 1, 1))
+                .start(LocalDateTime.of(2035, 1, 1, 1, 1, 1))
+                .end(LocalDateTime.of(2035, 1, 1, 2, 1, 1))
                 .itemId(1L)
                 .bookerId(1L)
                 .build();
@@ -302,8 +502,8 @@ public class TestBookingServiceInt {
     private BookingFullDto createBookingFullDto() {
         return BookingFullDto.builder()
                 .id(1L)
-                .start(LocalDateTime.of(2025, 1, 1, 1, 1, 1))
-                .end(LocalDateTime.of(2025, 1, 1, 2, 1, 1))
+                .start(LocalDateTime.of(2035, 1, 1, 1, 1, 1))
+                .end(LocalDateTime.of(2035, 1, 1, 2, 1, 1))
                 .item(createItemDto())
                 .booker(createUserDto())
                 .status(Status.WAITING)
@@ -325,4 +525,12 @@ public class TestBookingServiceInt {
                 .owner(2L)
                 .build();
     }
+
+    private Statistics resetStatistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
 }
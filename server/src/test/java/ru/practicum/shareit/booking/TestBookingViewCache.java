@@ -0,0 +1,169 @@
+package ru.practicum.shareit.booking;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.BookingChange;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import ru.practicum.shareit.booking.model.Status;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestBookingViewCache {
+    private MeterRegistry meterRegistry;
+    private BookingViewCache bookingViewCache;
+
+    @BeforeEach
+    private void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        bookingViewCache = new BookingViewCache(meterRegistry, 2, Duration.ofMinutes(5));
+    }
+
+    @Test
+    void get_success_hitAndMiss() {
+        //given
+        bookingViewCache.put(createView(1L), bookingViewCache.stamp());
+        //then
+        assertThat(bookingViewCache.get(1L))
+                .isPresent();
+        assertThat(bookingViewCache.get(2L))
+                .isEmpty();
+        assertThat(meterRegistry.get("shareit.booking.cache.gets").tag("result", "hit").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("shareit.booking.cache.gets").tag("result", "miss").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void put_success_evictsLeastRecentlyUsed() {
+        //given
+        bookingViewCache.put(createView(1L), bookingViewCache.stamp());
+        bookingViewCache.put(createView(2L), bookingViewCache.stamp());
+        bookingViewCache.get(1L);
+        //when
+        bookingViewCache.put(createView(3L), bookingViewCache.stamp());
+        //then
+        assertThat(bookingViewCache.get(1L))
+                .isPresent();
+        assertThat(bookingViewCache.get(2L))
+                .isEmpty();
+        assertThat(meterRegistry.get("shareit.booking.cache.evictions").counter().count())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("shareit.booking.cache.size").gauge().value())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void get_success_expired() {
+        //given
+        bookingViewCache = new BookingViewCache(meterRegistry, 2, Duration.ZERO);
+        bookingViewCache.put(createView(1L), bookingViewCache.stamp());
+        //then
+        assertThat(bookingViewCache.get(1L))
+                .isEmpty();
+    }
+
+    @Test
+    void invalidate_success() {
+        //given
+        bookingViewCache.put(createView(1L), bookingViewCache.stamp());
+        bookingViewCache.put(createView(2L), bookingViewCache.stamp());
+        //when
+        bookingViewCache.invalidate(1L);
+        bookingViewCache.onBookingChange(new BookingChange(2L, 1L, BookingEventType.EXPIRED));
+        //then
+        assertThat(bookingViewCache.get(1L))
+                .isEmpty();
+        assertThat(bookingViewCache.get(2L))
+                .isEmpty();
+    }
+
+    @Test
+    void put_success_rejectsViewLoadedBeforeInvalidation() {
+        //given
+        long stamp = bookingViewCache.stamp();
+        bookingViewCache.invalidate(1L);
+        //when
+        bookingViewCache.put(createView(1L), stamp);
+        bookingViewCache.put(createView(2L), stamp);
+        //then
+        assertThat(bookingViewCache.get(1L))
+                .isEmpty();
+        assertThat(bookingViewCache.get(2L))
+                .isPresent();
+        assertThat(meterRegistry.get("shareit.booking.cache.rejected-puts").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    void put_success_rejectsWhenInvalidationForgotten() {
+        //given
+        long stamp = bookingViewCache.stamp();
+        bookingViewCache.invalidate(1L);
+        bookingViewCache.invalidate(2L);
+        bookingViewCache.invalidate(3L);
+        //when
+        bookingViewCache.put(createView(1L), stamp);
+        bookingViewCache.put(createView(4L), bookingViewCache.stamp());
+        //then
+        assertThat(bookingViewCache.get(1L))
+                .isEmpty();
+        assertThat(bookingViewCache.get(4L))
+                .isPresent();
+    }
+
+    @Test
+    void invalidateItem_success() {
+        //given
+        bookingViewCache.put(createView(1L, 1L, 1L), bookingViewCache.stamp());
+        bookingViewCache.put(createView(2L, 2L, 1L), bookingViewCache.stamp());
+        long stamp = bookingViewCache.stamp();
+        //when
+        bookingViewCache.invalidateItem(1L);
+        bookingViewCache.put(createView(3L, 1L, 3L), stamp);
+        //then
+        assertThat(bookingViewCache.get(1L))
+                .isEmpty();
+        assertThat(bookingViewCache.get(2L))
+                .isPresent();
+        assertThat(bookingViewCache.get(3L))
+                .isEmpty();
+    }
+
+    @Test
+    void invalidateBooker_success() {
+        //given
+        bookingViewCache.put(createView(1L, 1L, 1L), bookingViewCache.stamp());
+        bookingViewCache.put(createView(2L, 1L, 2L), bookingViewCache.stamp());
+        //when
+        bookingViewCache.invalidateBooker(2L);
+        bookingViewCache.put(createView(3L, 1L, 1L), bookingViewCache.stamp());
+        //then
+        assertThat(bookingViewCache.get(1L))
+                .isPresent();
+        assertThat(bookingViewCache.get(2L))
+                .isEmpty();
+        assertThat(bookingViewCache.get(3L))
+                .isPresent();
+    }
+
+    private BookingView createView(Long id) {
+        return createView(id, 1L, 1L);
+    }
+
+    private BookingView createView(Long id, Long itemId, Long bookerId) {
+        return BookingView.builder()
+                .id(id)
+                .start(LocalDateTime.of(2035, 1, 1, 1, 1, 1))
+                .end(LocalDateTime.of(2035, 1, 1, 2, 1, 1))
+                .status(Status.WAITING)
+                .ownerId(2L)
+                .bookerId(bookerId)
+                .itemId(itemId)
+                .build();
+    }
+}
@@ -60,8 +60,9 @@ public class TestCommentServiceImp {
     void addItemComment_success() {
         //given
         CommentDto commentDto = createCommentDto();
-        when(bookingRepository.findUsersBookingForAnItemOrderByStartDesc(anyLong(), anyLong()))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.existsByUserIdAndItemIdAndStatusNotAndStartBefore(anyLong(), anyLong(),
+                eq(Status.REJECTED), any(LocalDateTime.class)))
+                .thenReturn(true);
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(author));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
         when(commentRepository.save(any(Comment.class))).thenReturn(comment);
@@ -80,8 +81,8 @@ public class TestCommentServiceImp {
         //given
         CommentDto commentDto = createCommentDto();
         //when
-        when(bookingRepository.findUsersBookingForAnItemOrderByStartDesc(anyLong(), anyLong()))
-                .thenReturn(List.of());
+        when(bookingRepository.existsByUserIdAndItemIdAndStatusNotAndStartBefore(anyLong(), anyLong(), any(), any()))
+                .thenReturn(false);
         //then
         assertThrows(UnsupportedStatusException.class, () -> commentService.addItemComment(author.getId(), commentDto,
                 item.getId()));
@@ -92,8 +93,8 @@ public class TestCommentServiceImp {
         //given
         CommentDto commentDto = createCommentDto();
         booking.setStatus(Status.REJECTED);
-        when(bookingRepository.findUsersBookingForAnItemOrderByStartDesc(anyLong(), anyLong()))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.existsByUserIdAndItemIdAndStatusNotAndStartBefore(anyLong(), anyLong(), any(), any()))
+                .thenReturn(booking.getStatus() != Status.REJECTED);
         //when
         commentDtoFull = CommentMapper.toCommentDtoFull(comment, author.getName());
         //then
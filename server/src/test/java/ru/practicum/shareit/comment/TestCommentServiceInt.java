@@ -1,5 +1,7 @@
 package ru.practicum.shareit.comment;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
@@ -36,7 +38,10 @@ import static org.assertj.core.api.Assertions.assertThat;
         properties = { "spring.datasource.driverClassName=org.h2.Driver",
                 "spring.datasource.url=jdbc:h2:mem:shareit",
                 "spring.datasource.username=test",
-                "spring.datasource.password=test"}
+                "spring.datasource.password=test",
+                "spring.jpa.properties.hibernate.generate_statistics=true",
+                "shareit.booking.outbox.interval=PT1H",
+                "shareit.booking.expiry.interval=PT1H"}
 )
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class TestCommentServiceInt {
@@ -56,8 +61,8 @@ public class TestCommentServiceInt {
 
     @BeforeEach
     private void init() {
-        LocalDateTime start = LocalDateTime.of(2025, 1, 1, 1, 1, 1);
-        LocalDateTime end = LocalDateTime.of(2025, 1, 1, 2, 1, 1);
+        LocalDateTime start = LocalDateTime.of(2035, 1, 1, 1, 1, 1);
+        LocalDateTime end = LocalDateTime.of(2035, 1, 1, 2, 1, 1);
         item = createItem();
         item.setId(1L);
         user = createUser("Ken", "eken@mail.ts");
@@ -88,8 +93,10 @@ public class TestCommentServiceInt {
         entityManager.persist(bookingInPast);
         String userName = "Ken";
         Long commentId = 1L;
+        Statistics statistics = resetStatistics();
         //when
         CommentDtoFull addedCommentDtoFull = commentService.addItemComment(user.getId(), commentDto, item.getId());
+        long statements = statistics.getPrepareStatementCount();
         Comment comment = entityManager.createQuery("SELECT c FROM Comment c where c.id = :id", Comment.class)
                 .setParameter("id", commentId)
                 .getSingleResult();
@@ -99,6 +106,8 @@ public class TestCommentServiceInt {
                 .isNotNull()
                 .isInstanceOf(CommentDtoFull.class)
                 .isEqualTo(queryCommentDtoFull);
+        assertThat(statements)
+                .isEqualTo(4);
     }
 
     private Item createItem() {
@@ -127,8 +136,8 @@ public class TestCommentServiceInt {
 
     private BookingDto createBookingDto() {
         return BookingDto.builder()
-                .start(LocalDateTime.of(2025, 1, 1, 1, 1, 1))
-                .end(LocalDateTime.of(2025, 1, 1, 2, 1, 1))
+                .start(LocalDateTime.of(2035, 1, 1, 1, 1, 1))
+                .end(LocalDateTime.of(2035, 1, 1, 2, 1, 1))
                 .itemId(1L)
                 .bookerId(1L)
                 .build();
@@ -142,4 +151,12 @@ public class TestCommentServiceInt {
                 .available(Boolean.TRUE)
                 .build();
     }
+
+    private Statistics resetStatistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
 }
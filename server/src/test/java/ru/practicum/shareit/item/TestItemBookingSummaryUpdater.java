@@ -0,0 +1,209 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventType;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
+import ru.practicum.shareit.user.model.User;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestItemBookingSummaryUpdater {
+    @Mock
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    private ItemBookingSummaryUpdater itemBookingSummaryUpdater;
+    private Item item;
+    private User booker;
+    private LocalDateTime start = LocalDateTime.now().plusDays(1);
+
+    @BeforeEach
+    private void init() {
+        itemBookingSummaryUpdater = new ItemBookingSummaryUpdater(itemBookingSummaryRepository, bookingRepository);
+        item = Item.builder()
+                .id(1L)
+                .name("thing")
+                .description("very thing")
+                .available(Boolean.TRUE)
+                .owner(2L)
+                .build();
+        booker = User.builder()
+                .id(3L)
+                .name("Ken")
+                .email("eken@mail.ts")
+                .build();
+    }
+
+    @Test
+    void add_success_keepsEarliestNext() {
+        //given
+        ItemBookingSummary summary = ItemBookingSummary.builder().itemId(item.getId()).build();
+        when(itemBookingSummaryRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(summary));
+        //when
+        itemBookingSummaryUpdater.add(createBooking(1L, start.plusDays(2), Status.WAITING));
+        itemBookingSummaryUpdater.add(createBooking(2L, start, Status.WAITING));
+        itemBookingSummaryUpdater.add(createBooking(3L, start.plusDays(4), Status.APPROVED));
+        //then
+        assertThat(summary.getNextBookingId())
+                .isEqualTo(2L);
+        assertThat(summary.getNextBookerId())
+                .isEqualTo(booker.getId());
+        assertThat(summary.getLastBookingId())
+                .isNull();
+        verifyNoInteractions(bookingRepository);
+    }
+
+    @Test
+    void add_success_createsSummary() {
+        //given
+        ArgumentCaptor<ItemBookingSummary> captor = ArgumentCaptor.forClass(ItemBookingSummary.class);
+        //when
+        itemBookingSummaryUpdater.add(createBooking(1L, start, Status.WAITING));
+        //then
+        verify(itemBookingSummaryRepository).save(captor.capture());
+        assertThat(captor.getValue().getItemId())
+                .isEqualTo(item.getId());
+        assertThat(captor.getValue().getNextBookingId())
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void onBookingEvent_success_rejectedNextIsReplaced() {
+        //given
+        Booking rejected = createBooking(1L, start, Status.REJECTED);
+        Booking following = createBooking(2L, start.plusDays(2), Status.APPROVED);
+        ItemBookingSummary summary = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .nextBookingId(rejected.getId())
+                .nextBookerId(booker.getId())
+                .nextStart(rejected.getStart())
+                .nextEnd(rejected.getEnd())
+                .build();
+        when(itemBookingSummaryRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(summary));
+        when(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusNotInOrderByEndDesc(anyLong(), any(), any()))
+                .thenReturn(Optional.empty());
+        when(bookingRepository.findFirstByItemIdAndStartAfterAndStatusNotInOrderByEndAsc(anyLong(), any(), any()))
+                .thenReturn(Optional.of(following));
+        //when
+        itemBookingSummaryUpdater.onBookingEvent(createEvent(rejected, BookingEventType.REJECTED));
+        //then
+        assertThat(summary.getNextBookingId())
+                .isEqualTo(following.getId());
+        assertThat(summary.getNextStart())
+                .isEqualTo(following.getStart());
+    }
+
+    @Test
+    void onBookingEvent_success_unrelatedCancelIsIgnored() {
+        //given
+        ItemBookingSummary summary = ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .nextBookingId(1L)
+                .nextBookerId(booker.getId())
+                .nextStart(start)
+                .nextEnd(start.plusHours(1))
+                .build();
+        when(itemBookingSummaryRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(summary));
+        //when
+        itemBookingSummaryUpdater.onBookingEvent(createEvent(createBooking(2L, start.plusDays(2), Status.CANCELED),
+                BookingEventType.CANCELED));
+        //then
+        assertThat(summary.getNextBookingId())
+                .isEqualTo(1L);
+        verifyNoInteractions(bookingRepository);
+        verify(itemBookingSummaryRepository, never()).save(any());
+    }
+
+    @Test
+    void onBookingEvent_success_createdIsOffered() {
+        //given
+        Booking created = createBooking(1L, start, Status.WAITING);
+        ItemBookingSummary summary = ItemBookingSummary.builder().itemId(item.getId()).build();
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(created));
+        when(itemBookingSummaryRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(summary));
+        //when
+        itemBookingSummaryUpdater.onBookingEvent(createEvent(created, BookingEventType.CREATED));
+        //then
+        assertThat(summary.getNextBookingId())
+                .isEqualTo(created.getId());
+    }
+
+    @Test
+    void onBookingEvent_success_deletedBookingIsSkipped() {
+        //when
+        itemBookingSummaryUpdater.onBookingEvent(createEvent(createBooking(1L, start, Status.WAITING),
+                BookingEventType.CREATED));
+        //then
+        verifyNoInteractions(itemBookingSummaryRepository);
+    }
+
+    @Test
+    void get_success_startedNextBecomesLast() {
+        //given
+        Booking started = createBooking(1L, LocalDateTime.now().minusMinutes(5), Status.APPROVED);
+        when(itemBookingSummaryRepository.findById(anyLong())).thenReturn(Optional.of(ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .nextBookingId(started.getId())
+                .nextBookerId(booker.getId())
+                .nextStart(started.getStart())
+                .nextEnd(started.getEnd())
+                .build()));
+        when(bookingRepository.findFirstByItemIdAndStartBeforeAndStatusNotInOrderByEndDesc(anyLong(), any(), any()))
+                .thenReturn(Optional.of(started));
+        when(bookingRepository.findFirstByItemIdAndStartAfterAndStatusNotInOrderByEndAsc(anyLong(), any(), any()))
+                .thenReturn(Optional.empty());
+        //when
+        ItemBookingSummary summary = itemBookingSummaryUpdater.get(item.getId());
+        //then
+        assertThat(summary.getLastBookingId())
+                .isEqualTo(started.getId());
+        assertThat(summary.getNextBookingId())
+                .isNull();
+    }
+
+    @Test
+    void get_success_noBookings() {
+        //when
+        ItemBookingSummary summary = itemBookingSummaryUpdater.get(item.getId());
+        //then
+        assertThat(summary.getLastBookingId())
+                .isNull();
+        assertThat(summary.getNextBookingId())
+                .isNull();
+        verifyNoInteractions(bookingRepository);
+    }
+
+    private BookingEvent createEvent(Booking booking, BookingEventType type) {
+        return BookingEvent.builder()
+                .bookingId(booking.getId())
+                .itemId(item.getId())
+                .type(type)
+                .created(LocalDateTime.now())
+                .build();
+    }
+
+    private Booking createBooking(Long id, LocalDateTime bookingStart, Status status) {
+        return Booking.builder()
+                .id(id)
+                .start(bookingStart)
+                .end(bookingStart.plusHours(1))
+                .item(item)
+                .user(booker)
+                .status(status)
+                .build();
+    }
+}
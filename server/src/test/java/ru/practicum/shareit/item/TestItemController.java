@@ -10,6 +10,7 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.TimeSlotDto;
 import ru.practicum.shareit.comment.CommentService;
 import ru.practicum.shareit.comment.dto.CommentDto;
 import ru.practicum.shareit.comment.dto.CommentDtoFull;
@@ -71,6 +72,27 @@ public class TestItemController {
                 .andExpect(jsonPath("$.description", is(item.getDescription())));
     }
 
+    @Test
+    void getItemAvailability_success() throws Exception {
+        //given
+        LocalDateTime from = LocalDateTime.of(2035, 1, 1, 1, 1, 1);
+        LocalDateTime to = LocalDateTime.of(2035, 1, 1, 5, 1, 1);
+        when(itemService.getItemAvailability(anyLong(), any(LocalDateTime.class), any(LocalDateTime.class)))
+                .thenReturn(List.of(new TimeSlotDto(from, to)));
+        //then
+        mvc.perform(get("/items/{itemId}/availability", item.getId())
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .header(headerXSharerUserId, 1)
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].start", is(from.toString())))
+                .andExpect(jsonPath("$[0].end", is(to.toString())));
+    }
+
     @Test
     void addItemComment_success() throws Exception {
         //given
@@ -166,6 +188,23 @@ public class TestItemController {
                 .andExpect(jsonPath("$", hasSize(1)));
     }
 
+    @Test
+    void suggestItemNames_success() throws Exception {
+        //given
+        when(itemService.suggestItemNames("dr", 5)).thenReturn(List.of("Drill", "Drone"));
+        //then
+        mvc.perform(get("/items/suggest")
+                        .header(headerXSharerUserId, 1)
+                        .param("prefix", "dr")
+                        .param("limit", "5")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0]", is("Drill")))
+                .andExpect(jsonPath("$[1]", is("Drone")));
+    }
+
     @Test
     void deleteItem_success() throws Exception {
         //then
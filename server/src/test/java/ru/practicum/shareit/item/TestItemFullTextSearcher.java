@@ -0,0 +1,54 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.item.model.Item;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestItemFullTextSearcher {
+    @Mock
+    private ItemRepository itemRepository;
+    private ItemFullTextSearcher itemFullTextSearcher;
+
+    @BeforeEach
+    private void init() {
+        itemFullTextSearcher = new ItemFullTextSearcher(itemRepository);
+    }
+
+    @Test
+    void search_success_prefixQuery() {
+        //given
+        Item item = Item.builder()
+                .id(1L)
+                .name("Drill")
+                .description("cordless power drill")
+                .available(Boolean.TRUE)
+                .owner(1L)
+                .build();
+        when(itemRepository.searchAvailableFullText("cord:* & drill:*", PageRequest.of(1, 5)))
+                .thenReturn(List.of(item));
+        //when
+        List<Item> items = itemFullTextSearcher.search("Cord, DRILL", 5, 5);
+        //then
+        assertThat(items)
+                .containsExactly(item);
+    }
+
+    @Test
+    void search_success_noTokens() {
+        //when
+        List<Item> items = itemFullTextSearcher.search(" & !", 0, 10);
+        //then
+        assertThat(items)
+                .isEmpty();
+        verifyNoInteractions(itemRepository);
+    }
+}
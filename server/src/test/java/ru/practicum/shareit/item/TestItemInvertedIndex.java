@@ -0,0 +1,156 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemTextDto;
+import ru.practicum.shareit.item.model.Item;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestItemInvertedIndex {
+    @Mock
+    private ItemRepository itemRepository;
+    private MeterRegistry meterRegistry;
+    private ItemInvertedIndex itemInvertedIndex;
+    private List<Item> items;
+
+    @BeforeEach
+    private void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        itemInvertedIndex = new ItemInvertedIndex(itemRepository, meterRegistry);
+        items = List.of(createItem(1L, "Drill", "cordless power tool"),
+                createItem(2L, "Hammer", "heavy tool, good for a drill-free wall"),
+                createItem(3L, "Saw", "hand tool"),
+                createItem(4L, "Ladder", "aluminium"));
+        items.forEach(itemInvertedIndex::add);
+    }
+
+    @Test
+    void search_success_rankedByField() {
+        //given
+        stubFindAllById();
+        //when
+        List<Item> found = itemInvertedIndex.search("drill", 0, 10);
+        //then
+        assertThat(found)
+                .extracting(Item::getId)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void search_success_prefixesOfAllTokens() {
+        //given
+        stubFindAllById();
+        //when
+        List<Item> found = itemInvertedIndex.search("TOO ha", 0, 10);
+        //then
+        assertThat(found)
+                .extracting(Item::getId)
+                .containsExactly(2L, 3L);
+        assertThat(itemInvertedIndex.search("tool ladder", 0, 10))
+                .isEmpty();
+    }
+
+    @Test
+    void search_success_paged() {
+        //given
+        stubFindAllById();
+        //when
+        List<Item> firstPage = itemInvertedIndex.search("tool", 0, 2);
+        List<Item> secondPage = itemInvertedIndex.search("tool", 2, 2);
+        //then
+        assertThat(firstPage)
+                .extracting(Item::getId)
+                .containsExactly(1L, 2L);
+        assertThat(secondPage)
+                .extracting(Item::getId)
+                .containsExactly(3L);
+        assertThat(meterRegistry.get("shareit.item.search.query").timer().count())
+                .isEqualTo(2L);
+    }
+
+    @Test
+    void add_success_reindexesAndSkipsUnavailable() {
+        //given
+        stubFindAllById();
+        Item saw = items.get(2);
+        saw.setDescription("chainsaw");
+        Item ladder = items.get(3);
+        ladder.setAvailable(Boolean.FALSE);
+        //when
+        itemInvertedIndex.add(saw);
+        itemInvertedIndex.add(ladder);
+        //then
+        assertThat(itemInvertedIndex.search("hand", 0, 10))
+                .isEmpty();
+        assertThat(itemInvertedIndex.search("chain", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(3L);
+        assertThat(itemInvertedIndex.search("ladder", 0, 10))
+                .isEmpty();
+        assertThat(meterRegistry.get("shareit.item.search.index.size").gauge().value())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    void remove_success() {
+        //given
+        stubFindAllById();
+        //when
+        itemInvertedIndex.remove(1L);
+        //then
+        assertThat(itemInvertedIndex.search("cordless", 0, 10))
+                .isEmpty();
+        assertThat(itemInvertedIndex.search("drill", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(2L);
+    }
+
+    @Test
+    void rebuild_success() {
+        //given
+        when(itemRepository.streamAvailableItemTexts()).thenReturn(Stream.of(
+                new ItemTextDto(5L, "Tent", "two person tent")));
+        //when
+        itemInvertedIndex.rebuild();
+        //then
+        assertThat(meterRegistry.get("shareit.item.search.index.size").gauge().value())
+                .isEqualTo(1.0);
+        assertThat(meterRegistry.get("shareit.item.search.index.terms").gauge().value())
+                .isEqualTo(3.0);
+        assertThat(meterRegistry.get("shareit.item.search.index.build").timer().count())
+                .isEqualTo(1L);
+        assertThat(itemInvertedIndex.search("drill", 0, 10))
+                .isEmpty();
+    }
+
+    private void stubFindAllById() {
+        lenient().when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return items.stream()
+                    .filter(x -> ids.contains(x.getId()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    private Item createItem(Long id, String name, String description) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(Boolean.TRUE)
+                .owner(1L)
+                .build();
+    }
+}
@@ -0,0 +1,111 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemTextDto;
+import ru.practicum.shareit.item.model.Item;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestItemNameSuggester {
+    @Mock
+    private ItemRepository itemRepository;
+    private MeterRegistry meterRegistry;
+    private ItemNameSuggester itemNameSuggester;
+
+    @BeforeEach
+    private void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        itemNameSuggester = new ItemNameSuggester(itemRepository, meterRegistry);
+        List.of(createItem(1L, "Drill"),
+                createItem(2L, "Drone  mini"),
+                createItem(3L, "drill"),
+                createItem(4L, "Дрель"),
+                createItem(5L, "Hammer"))
+                .forEach(itemNameSuggester::add);
+    }
+
+    @Test
+    void suggest_success() {
+        //then
+        assertThat(itemNameSuggester.suggest("DR", 10))
+                .containsExactly("Drill", "Drone mini");
+        assertThat(itemNameSuggester.suggest("дре", 10))
+                .containsExactly("Дрель");
+        assertThat(itemNameSuggester.suggest("drone m", 10))
+                .containsExactly("Drone mini");
+        assertThat(itemNameSuggester.suggest("dr", 1))
+                .containsExactly("Drill");
+        assertThat(itemNameSuggester.suggest("  ", 10))
+                .isEmpty();
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void add_success_updatesAndSkipsUnavailable() {
+        //given
+        Item drone = createItem(2L, "Quadcopter");
+        Item hammer = createItem(5L, "Hammer");
+        hammer.setAvailable(Boolean.FALSE);
+        //when
+        itemNameSuggester.add(drone);
+        itemNameSuggester.add(hammer);
+        //then
+        assertThat(itemNameSuggester.suggest("dr", 10))
+                .containsExactly("Drill");
+        assertThat(itemNameSuggester.suggest("q", 10))
+                .containsExactly("Quadcopter");
+        assertThat(itemNameSuggester.suggest("ham", 10))
+                .isEmpty();
+    }
+
+    @Test
+    void remove_success_keepsSharedNames() {
+        //when
+        itemNameSuggester.remove(1L);
+        //then
+        assertThat(itemNameSuggester.suggest("drill", 10))
+                .containsExactly("Drill");
+        //when
+        itemNameSuggester.remove(3L);
+        //then
+        assertThat(itemNameSuggester.suggest("drill", 10))
+                .isEmpty();
+        assertThat(meterRegistry.get("shareit.item.suggest.size").gauge().value())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    void rebuild_success() {
+        //given
+        when(itemRepository.streamAvailableItemTexts()).thenReturn(LongStream.rangeClosed(1, 100_000)
+                .mapToObj(x -> new ItemTextDto(x, String.format("item %06d", x), "for rent")));
+        //when
+        itemNameSuggester.rebuild();
+        List<String> suggestions = itemNameSuggester.suggest("item 0500", 5);
+        //then
+        assertThat(suggestions)
+                .containsExactly("item 050000", "item 050001", "item 050002", "item 050003", "item 050004");
+        assertThat(meterRegistry.get("shareit.item.suggest.build").timer().count())
+                .isEqualTo(1L);
+    }
+
+    private Item createItem(Long id, String name) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description("for rent")
+                .available(Boolean.TRUE)
+                .owner(1L)
+                .build();
+    }
+}
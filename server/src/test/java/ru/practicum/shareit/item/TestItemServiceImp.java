@@ -1,16 +1,25 @@
 package ru.practicum.shareit.item;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.booking.BookingEventRepository;
+import ru.practicum.shareit.booking.BookingIntervalIndex;
 import ru.practicum.shareit.booking.BookingRepository;
+import ru.practicum.shareit.booking.BookingViewCache;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.dto.TimeSlotDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingEvent;
+import ru.practicum.shareit.booking.model.BookingEventType;
 import ru.practicum.shareit.comment.CommentRepository;
 import ru.practicum.shareit.comment.dto.CommentMapper;
 import ru.practicum.shareit.comment.model.Comment;
@@ -19,12 +28,16 @@ import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemBookingSummary;
 import ru.practicum.shareit.request.ItemRequestRepository;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.ApproximateCounter;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -42,6 +55,11 @@ public class TestItemServiceImp {
     private BookingRepository bookingRepository;
     @Mock
     private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+    @Mock
+    private BookingEventRepository bookingEventRepository;
+    private BookingViewCache bookingViewCache;
     private ItemService itemService;
     private ItemDto itemDto;
     private User user;
@@ -53,7 +71,14 @@ public class TestItemServiceImp {
 
     @BeforeEach
     private void init() {
-        itemService = new ItemServiceImp(itemRepository, userRepository, bookingRepository, commentRepository, itemRequestRepository);
+        bookingViewCache = new BookingViewCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(5));
+        itemService = new ItemServiceImp(itemRepository, userRepository, bookingRepository, commentRepository, itemRequestRepository,
+                new BookingIntervalIndex(bookingRepository), new ApproximateCounter(Duration.ofSeconds(30)),
+                new ItemBookingSummaryUpdater(itemBookingSummaryRepository, bookingRepository),
+                new ItemInvertedIndex(itemRepository, new SimpleMeterRegistry()),
+                new ItemTrigramIndex(itemRepository, new SimpleMeterRegistry(), 0.3, 5000),
+                new ItemNameSuggester(itemRepository, new SimpleMeterRegistry()), bookingViewCache,
+                bookingEventRepository);
         itemDto = createItemDto();
         item = createItem();
         item.setId(1L);
@@ -117,7 +142,13 @@ public class TestItemServiceImp {
     void getItem_success_byOwner() {
         //given
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.findByItemIdOrderByStartDesc(anyLong())).thenReturn(List.of(booking));
+        when(itemBookingSummaryRepository.findById(anyLong())).thenReturn(Optional.of(ItemBookingSummary.builder()
+                .itemId(item.getId())
+                .nextBookingId(booking.getId())
+                .nextBookerId(user.getId())
+                .nextStart(booking.getStart())
+                .nextEnd(booking.getEnd())
+                .build()));
         //when
         ItemWithBookingsDto itemWithBookingsDto = ItemMapper.toItemWithBookingsDto(item);
         itemWithBookingsDto.setNextBooking(BookingMapper.toMinBookingDto(booking));
@@ -158,7 +189,7 @@ public class TestItemServiceImp {
         //given
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
         PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(itemRepository.findByOwnerOrderById(owner.getId(), page)).thenReturn(new PageImpl<>(List.of(item)));
+        when(itemRepository.findByOwnerOrderById(owner.getId(), page)).thenReturn(new SliceImpl<>(List.of(item)));
         //when
         List<ItemWithBookingsDto> items = itemService.getUserItems(owner.getId(), defaultFrom, defaultSize);
         //then
@@ -169,6 +200,8 @@ public class TestItemServiceImp {
         assertThat(items.get(0).getName())
                 .isNotNull()
                 .isEqualTo(item.getName());
+        verify(commentRepository, times(1)).findByItemIdIn(List.of(item.getId()));
+        verify(commentRepository, never()).findByItemId(anyLong());
     }
 
     @Test
@@ -176,7 +209,7 @@ public class TestItemServiceImp {
         //given
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(itemRepository.findByOwnerOrderById(user.getId(), page)).thenReturn(new PageImpl<>(List.of()));
+        when(itemRepository.findByOwnerOrderById(user.getId(), page)).thenReturn(new SliceImpl<>(List.of()));
         //when
         List<ItemWithBookingsDto> items = itemService.getUserItems(user.getId(), defaultFrom, defaultSize);
         //then
@@ -190,8 +223,10 @@ public class TestItemServiceImp {
     void searchItem_success() {
         //given
         String searchText = "thing";
-        PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(itemRepository.findByDescriptionContainingIgnoreCase(searchText, page)).thenReturn(List.of(item));
+        when(itemRepository.save(any(Item.class))).thenReturn(item);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        itemService.addItem(owner.getId(), itemDto);
+        when(itemRepository.findAllById(List.of(item.getId()))).thenReturn(List.of(item));
         //when
         List<ItemDto> items = itemService.searchItem(searchText, defaultFrom, defaultSize);
         //then
@@ -204,6 +239,43 @@ public class TestItemServiceImp {
                 .isEqualTo(item.getName());
     }
 
+    @Test
+    void searchItem_success_typoFallback() {
+        //given
+        item.setName("Дрель");
+        item.setDescription("ударная");
+        when(itemRepository.save(any(Item.class))).thenReturn(item);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        itemService.addItem(owner.getId(), itemDto);
+        when(itemRepository.findAllById(List.of(item.getId()))).thenReturn(List.of(item));
+        //when
+        List<ItemDto> items = itemService.searchItem("drel", defaultFrom, defaultSize);
+        //then
+        assertThat(items)
+                .extracting(ItemDto::getName)
+                .containsExactly("Дрель");
+    }
+
+    @Test
+    void suggestItemNames_success() {
+        //given
+        when(itemRepository.save(any(Item.class))).thenReturn(item);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        itemService.addItem(owner.getId(), itemDto);
+        //when
+        List<String> suggestions = itemService.suggestItemNames("TH", 5);
+        //then
+        assertThat(suggestions)
+                .containsExactly(item.getName());
+        verify(itemRepository, never()).findAllById(anyIterable());
+    }
+
+    @Test
+    void suggestItemNames_failure_wrongLimit() {
+        //then
+        assertThrows(ResponseStatusException.class, () -> itemService.suggestItemNames("th", 0));
+    }
+
     @Test
     void searchItem_success_noText() {
         //given
@@ -218,15 +290,57 @@ public class TestItemServiceImp {
                 .hasSize(0);
     }
 
+    @Test
+    void getItemAvailability_success() {
+        //given
+        LocalDateTime from = LocalDateTime.of(2035, 1, 1, 0, 0, 0);
+        when(itemRepository.existsById(anyLong())).thenReturn(true);
+        when(bookingRepository.streamItemBookingSlots(anyLong(), any(), any(), anyCollection())).thenReturn(Stream.of(
+                new TimeSlotDto(from.minusHours(1), from.plusHours(1)),
+                new TimeSlotDto(from.plusHours(2), from.plusHours(4)),
+                new TimeSlotDto(from.plusHours(3), from.plusHours(5))));
+        //when
+        List<TimeSlotDto> freeSlots = itemService.getItemAvailability(item.getId(), from, from.plusHours(6));
+        //then
+        assertThat(freeSlots)
+                .containsExactly(new TimeSlotDto(from.plusHours(1), from.plusHours(2)),
+                        new TimeSlotDto(from.plusHours(5), from.plusHours(6)));
+    }
+
+    @Test
+    void getItemAvailability_failure_wrongPeriod() {
+        //given
+        LocalDateTime from = LocalDateTime.of(2035, 1, 1, 0, 0, 0);
+        //then
+        assertThrows(ResponseStatusException.class,
+                () -> itemService.getItemAvailability(item.getId(), from, from.minusHours(1)));
+    }
+
+    @Test
+    void getItemAvailability_failure_noItem() {
+        //given
+        LocalDateTime from = LocalDateTime.of(2035, 1, 1, 0, 0, 0);
+        when(itemRepository.existsById(anyLong())).thenReturn(false);
+        //then
+        assertThrows(EntityNotFoundException.class,
+                () -> itemService.getItemAvailability(item.getId(), from, from.plusHours(1)));
+    }
+
     @Test
     void deleteItem_success() {
         //when
+        bookingViewCache.put(BookingView.builder().id(3L).itemId(item.getId()).build(), bookingViewCache.stamp());
+        when(bookingRepository.findRecordIdsByItemId(anyLong())).thenReturn(List.of(3L, 4L));
         when(bookingRepository.findByItemIdOrderByStartDesc(anyLong())).thenReturn(List.of());
         doNothing().when(bookingRepository).deleteAllInBatch(any());
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
         doNothing().when(itemRepository).delete(any());
         //then
         itemService.deleteItem(item.getId());
+        assertThat(bookingViewCache.get(3L))
+                .isEmpty();
+        verify(bookingEventRepository).saveAll(argThat((List<BookingEvent> events) -> events.size() == 2
+                && events.stream().allMatch(x -> x.getType() == BookingEventType.DELETED)));
     }
 
     @Test
@@ -265,8 +379,8 @@ public class TestItemServiceImp {
 
     private BookingDto createBookingDto() {
         return BookingDto.builder()
-                .start(LocalDateTime.of(2025, 1, 1, 1, 1, 1))
-                .end(LocalDateTime.of(2025, 1, 1, 2, 1, 1))
+                .start(LocalDateTime.of(2035, 1, 1, 1, 1, 1))
+                .end(LocalDateTime.of(2035, 1, 1, 2, 1, 1))
                 .itemId(1L)
                 .bookerId(1L)
                 .build();
@@ -1,16 +1,24 @@
 package ru.practicum.shareit.item;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
 import lombok.RequiredArgsConstructor;
 import org.junit.jupiter.api.Test;
 import javax.persistence.EntityManager;
 import javax.transaction.Transactional;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 
+import ru.practicum.shareit.booking.dto.TimeSlotDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.Status;
+import ru.practicum.shareit.comment.model.Comment;
 import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemWithBookingsDto;
@@ -28,7 +36,11 @@ import static org.assertj.core.api.Assertions.assertThat;
         properties = { "spring.datasource.driverClassName=org.h2.Driver",
         "spring.datasource.url=jdbc:h2:mem:shareit",
         "spring.datasource.username=test",
-        "spring.datasource.password=test"}
+        "spring.datasource.password=test",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "shareit.booking.outbox.interval=PT1H",
+        "shareit.booking.expiry.interval=PT1H",
+        "shareit.item.search=index"}
 )
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class TestItemServiceInt {
@@ -37,6 +49,7 @@ public class TestItemServiceInt {
     private final UserService userService;
     private final ItemService itemService;
     private final EntityManager entityManager;
+    private final ItemBookingSummaryUpdater itemBookingSummaryUpdater;
     private User owner;
     private Item item;
     private ItemDto itemDto;
@@ -86,8 +99,11 @@ public class TestItemServiceInt {
 
     @Test
     void getItem_success() {
+        //given
+        Statistics statistics = resetStatistics();
         //when
         ItemWithBookingsDto returnedItemWithBookingsDto = itemService.getItem(owner.getId(), item.getId());
+        long statements = statistics.getPrepareStatementCount();
         Item queryItem = entityManager.createQuery("SELECT i FROM Item i where i.id = : id", Item.class)
                 .setParameter("id", item.getId())
                 .getSingleResult();
@@ -98,6 +114,8 @@ public class TestItemServiceInt {
                 .isNotNull()
                 .isInstanceOf(ItemWithBookingsDto.class)
                 .isEqualTo(queryItemWithBookingsDto);
+        assertThat(statements)
+                .isEqualTo(3);
     }
 
     @Test
@@ -121,6 +139,95 @@ public class TestItemServiceInt {
                 .isEqualTo(queryItemWithBookingsDtos.get(0));
     }
 
+    @Test
+    void getUserItems_success_statementsDoNotDependOnPageSize() {
+        //given
+        User booker = userRepository.save(createUser("Ken", "eken@mail.ts"));
+        for (int i = 0; i < 20; i++) {
+            addItemWithActivity(booker);
+        }
+        //when
+        Statistics statistics = resetStatistics();
+        List<ItemWithBookingsDto> smallPage = itemService.getUserItems(owner.getId(), 0, 2);
+        long smallPageStatements = statistics.getPrepareStatementCount();
+        statistics = resetStatistics();
+        List<ItemWithBookingsDto> largePage = itemService.getUserItems(owner.getId(), 0, 20);
+        long largePageStatements = statistics.getPrepareStatementCount();
+        //then
+        assertThat(smallPage)
+                .hasSize(2);
+        assertThat(largePage)
+                .hasSize(20);
+        assertThat(largePage.stream()
+                .filter(x -> x.getNextBooking() != null && x.getComments().size() == 1))
+                .hasSize(19);
+        assertThat(smallPageStatements)
+                .isEqualTo(largePageStatements)
+                .isEqualTo(4);
+    }
+
+    @Test
+    void getItemAvailability_success() {
+        //given
+        User booker = userRepository.save(createUser("Ken", "eken@mail.ts"));
+        Item queryItem = entityManager.find(Item.class, item.getId());
+        LocalDateTime from = LocalDateTime.of(2035, 1, 1, 0, 0, 0);
+        entityManager.persist(createBooking(queryItem, booker, from.plusHours(1), from.plusHours(2), Status.APPROVED));
+        entityManager.persist(createBooking(queryItem, booker, from.plusHours(2), from.plusHours(3), Status.WAITING));
+        entityManager.persist(createBooking(queryItem, booker, from.plusHours(4), from.plusHours(5), Status.REJECTED));
+        entityManager.persist(createBooking(queryItem, booker, from.plusHours(6), from.plusHours(9), Status.APPROVED));
+        //when
+        List<TimeSlotDto> freeSlots = itemService.getItemAvailability(item.getId(), from, from.plusHours(8));
+        //then
+        assertThat(freeSlots)
+                .containsExactly(new TimeSlotDto(from, from.plusHours(1)),
+                        new TimeSlotDto(from.plusHours(3), from.plusHours(6)));
+    }
+
+    @Test
+    void getItemAvailability_success_longHistory() {
+        //given
+        LocalDateTime from = LocalDateTime.of(2035, 1, 1, 0, 0, 0);
+        int history = 1000;
+        addBookingHistory(from, history);
+        //when
+        LocalDateTime historyEnd = from.plusHours(2L * history);
+        List<TimeSlotDto> weekSlots = itemService.getItemAvailability(item.getId(), historyEnd.minusDays(7),
+                historyEnd);
+        List<TimeSlotDto> allSlots = itemService.getItemAvailability(item.getId(), from, historyEnd);
+        //then
+        assertThat(weekSlots)
+                .hasSize(7 * 12);
+        assertThat(allSlots)
+                .hasSize(history);
+    }
+
+    @Test
+    @Tag("benchmark")
+    void getItemAvailability_benchmark() {
+        //given
+        LocalDateTime from = LocalDateTime.of(2035, 1, 1, 0, 0, 0);
+        int history = 10000;
+        addBookingHistory(from, history);
+        itemService.getItemAvailability(item.getId(), from, from.plusDays(1));
+        //when
+        long begin = System.nanoTime();
+        LocalDateTime historyEnd = from.plusHours(2L * history);
+        List<TimeSlotDto> weekSlots = itemService.getItemAvailability(item.getId(), historyEnd.minusDays(7),
+                historyEnd);
+        long weekElapsed = System.nanoTime() - begin;
+        begin = System.nanoTime();
+        List<TimeSlotDto> allSlots = itemService.getItemAvailability(item.getId(), from, historyEnd);
+        long allElapsed = System.nanoTime() - begin;
+        System.out.printf("availability, history %d bookings: week window %d us, full window %d us%n",
+                history, weekElapsed / 1000, allElapsed / 1000);
+        //then
+        assertThat(weekSlots)
+                .hasSize(7 * 12);
+        assertThat(allSlots)
+                .hasSize(history);
+    }
+
     @Test
     void searchItem_success() {
         //given
@@ -137,6 +244,87 @@ public class TestItemServiceInt {
                 .isEqualTo(ItemMapper.toItemDto(searchedItem));
     }
 
+    @Test
+    void searchItem_success_indexFollowsUpdates() {
+        //given
+        ItemDto secondItemDto = itemService.addItem(owner.getId(), ItemDto.builder()
+                .name("Tent")
+                .description("sleeps two, thin walls")
+                .available(Boolean.TRUE)
+                .build());
+        itemDto.setAvailable(Boolean.FALSE);
+        //when
+        itemService.updateItem(owner.getId(), itemDto, item.getId());
+        List<ItemDto> afterUpdate = itemService.searchItem("thi", defaultFrom, defaultSize);
+        itemService.deleteItem(secondItemDto.getId());
+        List<ItemDto> afterDelete = itemService.searchItem("thi", defaultFrom, defaultSize);
+        //then
+        assertThat(afterUpdate)
+                .extracting(ItemDto::getId)
+                .containsExactly(secondItemDto.getId());
+        assertThat(afterDelete)
+                .isEmpty();
+    }
+
+    @Test
+    void searchItem_success_databaseMostlyUnavailable() {
+        //given
+        ItemDatabaseSearcher itemDatabaseSearcher = new ItemDatabaseSearcher(itemRepository);
+        for (int i = 0; i < 30; i++) {
+            Item thing = createItem();
+            thing.setOwner(owner.getId());
+            thing.setName(String.format("Thing %d", i));
+            thing.setDescription((i % 2 == 0) ? "plain" : "another THING");
+            thing.setAvailable(i % 5 == 0);
+            itemRepository.save(thing);
+        }
+        List<Long> availableIds = entityManager.createQuery("select i.id from Item as i where i.available = true " +
+                        "order by i.id", Long.class)
+                .getResultList();
+        //when
+        List<Item> firstPage = itemDatabaseSearcher.search("thin", 0, 3);
+        List<Item> secondPage = itemDatabaseSearcher.search("thin", 3, 3);
+        List<Item> lastPage = itemDatabaseSearcher.search("thin", 6, 3);
+        //then
+        assertThat(availableIds)
+                .hasSize(7);
+        assertThat(firstPage)
+                .extracting(Item::getId)
+                .containsExactlyElementsOf(availableIds.subList(0, 3));
+        assertThat(secondPage)
+                .extracting(Item::getId)
+                .containsExactlyElementsOf(availableIds.subList(3, 6));
+        assertThat(lastPage)
+                .extracting(Item::getId)
+                .containsExactlyElementsOf(availableIds.subList(6, 7));
+    }
+
+    @Test
+    void searchItem_success_databaseWildcardsMatchLiterally() {
+        //given
+        ItemDatabaseSearcher itemDatabaseSearcher = new ItemDatabaseSearcher(itemRepository);
+        Item discounted = createItem();
+        discounted.setOwner(owner.getId());
+        discounted.setName("Drill 50% off");
+        discounted.setDescription("cordless_drill");
+        itemRepository.save(discounted);
+        Item plain = createItem();
+        plain.setOwner(owner.getId());
+        plain.setName("Drill 500 W");
+        plain.setDescription("cordless drill");
+        itemRepository.save(plain);
+        //when
+        List<Item> byPercent = itemDatabaseSearcher.search("50%", 0, 10);
+        List<Item> byUnderscore = itemDatabaseSearcher.search("s_d", 0, 10);
+        //then
+        assertThat(byPercent)
+                .extracting(Item::getId)
+                .containsExactly(discounted.getId());
+        assertThat(byUnderscore)
+                .extracting(Item::getId)
+                .containsExactly(discounted.getId());
+    }
+
     @Test
     void deleteItem_success() {
         //when
@@ -164,6 +352,17 @@ public class TestItemServiceInt {
                 .build();
     }
 
+    private Booking createBooking(Item bookedItem, User booker, LocalDateTime start, LocalDateTime end,
+                                  Status status) {
+        return Booking.builder()
+                .start(start)
+                .end(end)
+                .item(bookedItem)
+                .user(booker)
+                .status(status)
+                .build();
+    }
+
     private Item createItem() {
         return Item.builder()
                 .name("thing")
@@ -172,4 +371,39 @@ public class TestItemServiceInt {
                 .owner(2L)
                 .build();
     }
+
+    private void addBookingHistory(LocalDateTime from, int history) {
+        User booker = userRepository.save(createUser("Ken", "eken@mail.ts"));
+        Item queryItem = entityManager.find(Item.class, item.getId());
+        for (int i = 0; i < history; i++) {
+            entityManager.persist(createBooking(queryItem, booker, from.plusHours(2L * i),
+                    from.plusHours(2L * i + 1), Status.APPROVED));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    private void addItemWithActivity(User booker) {
+        LocalDateTime now = LocalDateTime.now();
+        Item ownedItem = createItem();
+        ownedItem.setOwner(owner.getId());
+        itemRepository.save(ownedItem);
+        entityManager.persist(Comment.builder()
+                .item(ownedItem)
+                .author(booker)
+                .text("good thing")
+                .created(now)
+                .build());
+        Booking booking = createBooking(ownedItem, booker, now.plusDays(1), now.plusDays(2), Status.WAITING);
+        entityManager.persist(booking);
+        itemBookingSummaryUpdater.add(booking);
+    }
+
+    private Statistics resetStatistics() {
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
 }
@@ -0,0 +1,170 @@
+package ru.practicum.shareit.item;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.dto.ItemTextDto;
+import ru.practicum.shareit.item.model.Item;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TestItemTrigramIndex {
+    @Mock
+    private ItemRepository itemRepository;
+    private MeterRegistry meterRegistry;
+    private ItemTrigramIndex itemTrigramIndex;
+    private List<Item> items;
+
+    @BeforeEach
+    private void init() {
+        meterRegistry = new SimpleMeterRegistry();
+        itemTrigramIndex = new ItemTrigramIndex(itemRepository, meterRegistry, 0.3, 5000);
+        items = List.of(createItem(1L, "Дрель", "ударная, с кейсом"),
+                createItem(2L, "Drill", "cordless"),
+                createItem(3L, "Hammer", "for a drill-free wall"),
+                createItem(4L, "Ladder", "aluminium"));
+        items.forEach(itemTrigramIndex::add);
+        lenient().when(itemRepository.findAllById(anyIterable())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return items.stream()
+                    .filter(x -> ids.contains(x.getId()))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Test
+    void search_success_crossScriptTypo() {
+        //when
+        List<Item> found = itemTrigramIndex.search("drel", 0, 10);
+        //then
+        assertThat(found)
+                .extracting(Item::getId)
+                .containsExactly(1L, 2L);
+        assertThat(itemTrigramIndex.search("дрилл", 0, 10))
+                .extracting(Item::getId)
+                .startsWith(2L);
+    }
+
+    @Test
+    void search_success_rankedByNameThenDescription() {
+        //when
+        List<Item> found = itemTrigramIndex.search("drill", 0, 10);
+        //then
+        assertThat(found)
+                .extracting(Item::getId)
+                .containsExactly(2L, 3L);
+    }
+
+    @Test
+    void search_success_belowThreshold() {
+        //then
+        assertThat(itemTrigramIndex.search("screwdriver", 0, 10))
+                .isEmpty();
+        assertThat(meterRegistry.get("shareit.item.search.trigram.query").timer().count())
+                .isEqualTo(1L);
+    }
+
+    @Test
+    void search_success_candidatesCapped() {
+        //given
+        itemTrigramIndex = new ItemTrigramIndex(itemRepository, meterRegistry, 0.3, 1);
+        items.forEach(itemTrigramIndex::add);
+        //when
+        List<Item> found = itemTrigramIndex.search("drill", 0, 10);
+        //then
+        assertThat(found)
+                .extracting(Item::getId)
+                .containsExactly(2L, 3L);
+        assertThat(meterRegistry.get("shareit.item.search.trigram.truncated").counter().count())
+                .isEqualTo(2.0);
+    }
+
+    @Test
+    void add_success_reindexesAndSkipsUnavailable() {
+        //given
+        Item ladder = items.get(3);
+        ladder.setName("Stepladder");
+        Item drill = items.get(1);
+        drill.setAvailable(Boolean.FALSE);
+        //when
+        itemTrigramIndex.add(ladder);
+        itemTrigramIndex.add(drill);
+        //then
+        assertThat(itemTrigramIndex.search("stepladdr", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(4L);
+        assertThat(itemTrigramIndex.search("drill", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(3L);
+        assertThat(meterRegistry.get("shareit.item.search.trigram.size").gauge().value())
+                .isEqualTo(3.0);
+    }
+
+    @Test
+    void remove_success() {
+        //when
+        itemTrigramIndex.remove(1L);
+        //then
+        assertThat(itemTrigramIndex.search("drel", 0, 10))
+                .extracting(Item::getId)
+                .containsExactly(2L);
+    }
+
+    @Test
+    void trigrams_success_transliteration() {
+        //then
+        assertThat(ItemTrigramIndex.transliterate("щётка"))
+                .isEqualTo("schetka");
+        assertThat(ItemTrigramIndex.trigrams("ДРЕЛЬ"))
+                .isEqualTo(ItemTrigramIndex.trigrams("drel"));
+    }
+
+    @Test
+    @Tag("benchmark")
+    void search_benchmark() {
+        //given
+        String[] words = {"drill", "hammer", "saw", "ladder", "tent", "bike", "kayak", "дрель", "пила", "лестница",
+                "палатка", "велосипед", "cordless", "electric", "mini", "pro", "heavy", "складная", "большая"};
+        int catalog = 100_000;
+        when(itemRepository.streamAvailableItemTexts()).thenReturn(LongStream.rangeClosed(1, catalog)
+                .mapToObj(x -> new ItemTextDto(x, String.format("%s %s %d", words[(int) (x % words.length)],
+                        words[(int) (x / words.length % words.length)], x), "item for rent")));
+        long begin = System.nanoTime();
+        itemTrigramIndex.rebuild();
+        long buildElapsed = System.nanoTime() - begin;
+        itemTrigramIndex.search("drel", 0, 10);
+        //when
+        int queries = 20;
+        begin = System.nanoTime();
+        for (int i = 0; i < queries; i++) {
+            itemTrigramIndex.search("drel kordless", 0, 10);
+        }
+        long queryElapsed = (System.nanoTime() - begin) / queries;
+        System.out.printf("trigram index, %d items: build %d ms, query %d us%n", catalog, buildElapsed / 1_000_000,
+                queryElapsed / 1000);
+        //then
+        assertThat(meterRegistry.get("shareit.item.search.trigram.size").gauge().value())
+                .isEqualTo(catalog);
+    }
+
+    private Item createItem(Long id, String name, String description) {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(Boolean.TRUE)
+                .owner(1L)
+                .build();
+    }
+}
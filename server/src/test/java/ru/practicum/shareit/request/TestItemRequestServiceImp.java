@@ -7,13 +7,15 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.SliceImpl;
 import ru.practicum.shareit.error.EntityNotFoundException;
 import ru.practicum.shareit.item.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserRepository;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.util.ApproximateCounter;
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -39,7 +41,8 @@ public class TestItemRequestServiceImp {
 
     @BeforeEach
     private void init() {
-        itemRequestService = new ItemRequestServiceImp(itemRequestRepository, userRepository, itemRepository);
+        itemRequestService = new ItemRequestServiceImp(itemRequestRepository, userRepository, itemRepository,
+                new ApproximateCounter(Duration.ofSeconds(30)));
         user = createUser("Ken", "eken@mail.ts");
         user.setId(1L);
         itemRequest = createItemRequest();
@@ -179,7 +182,7 @@ public class TestItemRequestServiceImp {
         String itemDescription = "very thing";
         when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
         PageRequest page = PageRequest.of(defaultFrom > 0 ? defaultFrom / defaultSize : 0, defaultSize);
-        when(itemRequestRepository.findByRequestorIdNotOrderByCreatedDesc(user.getId(), page)).thenReturn(new PageImpl<>(List.of(itemRequest)));
+        when(itemRequestRepository.findByRequestorIdNotOrderByCreatedDesc(user.getId(), page)).thenReturn(new SliceImpl<>(List.of(itemRequest)));
         //when
         List<ItemRequestDto> itemRequestDtos = itemRequestService.getAllItemRequests(user.getId(), defaultFrom, defaultSize);
         //then
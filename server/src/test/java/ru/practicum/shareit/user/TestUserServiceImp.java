@@ -1,13 +1,16 @@
 package ru.practicum.shareit.user;
 
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 
+import ru.practicum.shareit.booking.BookingViewCache;
 import ru.practicum.shareit.error.EntityNotFoundException;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
@@ -29,7 +32,8 @@ public class TestUserServiceImp {
         userDto = createUserDto();
         user = createUser("Ken", "eken@mail.ts");
         user.setId(1L);
-        userService = new UserServiceImp(userRepository);
+        userService = new UserServiceImp(userRepository,
+                new BookingViewCache(new SimpleMeterRegistry(), 10, Duration.ofMinutes(5)));
     }
 
     @Test
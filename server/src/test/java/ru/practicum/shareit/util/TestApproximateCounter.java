@@ -0,0 +1,41 @@
+package ru.practicum.shareit.util;
+
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TestApproximateCounter {
+
+    @Test
+    void count_cachedWithinTtl() {
+        //given
+        ApproximateCounter approximateCounter = new ApproximateCounter(Duration.ofMinutes(1));
+        AtomicLong calls = new AtomicLong();
+        //when
+        long firstCount = approximateCounter.count("bookings", () -> calls.incrementAndGet() * 10);
+        long secondCount = approximateCounter.count("bookings", () -> calls.incrementAndGet() * 10);
+        long otherCount = approximateCounter.count("items", () -> calls.incrementAndGet() * 10);
+        //then
+        assertThat(firstCount)
+                .isEqualTo(10);
+        assertThat(secondCount)
+                .isEqualTo(10);
+        assertThat(otherCount)
+                .isEqualTo(20);
+    }
+
+    @Test
+    void count_recountedAfterTtl() {
+        //given
+        ApproximateCounter approximateCounter = new ApproximateCounter(Duration.ZERO);
+        AtomicLong calls = new AtomicLong();
+        //when
+        approximateCounter.count("bookings", calls::incrementAndGet);
+        long secondCount = approximateCounter.count("bookings", calls::incrementAndGet);
+        //then
+        assertThat(secondCount)
+                .isEqualTo(2);
+    }
+}